@@ -0,0 +1,120 @@
+package com.example.miniLMS.benchmarks;
+
+import com.example.miniLMS.MiniLmsApplication;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.service.CourseService;
+import com.example.miniLMS.service.LessonService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Runs the application without a web server against an in-memory H2 database and a temporary
+ * upload directory, so benchmarks need neither Postgres nor network access.
+ */
+final class BenchmarkApplication implements AutoCloseable {
+    private final Path uploadDir;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApplication(Path uploadDir, ConfigurableApplicationContext context) {
+        this.uploadDir = uploadDir;
+        this.context = context;
+    }
+
+    static BenchmarkApplication start() throws IOException {
+        Path uploadDir = Files.createTempDirectory("mini-lms-bench");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MiniLmsApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                // A fresh database per trial, so parameter combinations do not see each other's data
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "file.upload-dir=" + uploadDir,
+                "search.enabled=false",
+                "logging.level.root=WARN")
+            .run();
+        return new BenchmarkApplication(uploadDir, context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Creates a course of {@code modules} modules with {@code lessonsPerModule} TEXT lessons each.
+     */
+    Course createCourse(int modules, int lessonsPerModule, int textLength) {
+        CourseService courseService = bean(CourseService.class);
+        LessonService lessonService = bean(LessonService.class);
+
+        Course course = new Course();
+        course.setTitle("Benchmark course");
+        course.setDescription("Course of " + modules + " modules with " + lessonsPerModule + " lessons each");
+        course = courseService.createCourse(course);
+        for (int m = 0; m < modules; m++) {
+            Module module = new Module();
+            module.setTitle("Module " + m);
+            module.setSummary("Summary of module " + m);
+            module = courseService.addModuleToCourse(course.getId(), module);
+            for (int l = 0; l < lessonsPerModule; l++) {
+                Lesson lesson = new Lesson();
+                lesson.setTitle("Lesson " + m + "." + l);
+                lesson.setType(LessonType.TEXT);
+                lesson.setContent(text(textLength, m * lessonsPerModule + l));
+                lessonService.createLesson(module.getId(), lesson);
+            }
+        }
+        return course;
+    }
+
+    /**
+     * Prose-like text of the given length; the seed varies it so lessons do not all compress alike.
+     */
+    static String text(int length, int seed) {
+        String[] words = {"lesson", "module", "course", "progress", "video", "learning", "student",
+            "practice", "example", "chapter", "review", "question", "answer", "summary"};
+        StringBuilder text = new StringBuilder(length + 16);
+        int i = seed;
+        while (text.length() < length) {
+            text.append(words[Math.floorMod(i * 31 + seed, words.length)]).append(i % 11 == 0 ? ". " : " ");
+            i++;
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    /**
+     * Deletes every stored file but keeps the directory layout.
+     */
+    void clearUploads() throws IOException {
+        delete(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        delete(true);
+    }
+
+    private void delete(boolean directories) throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                if (directories || Files.isRegularFile(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.miniLMS.benchmarks;
+
+import com.example.miniLMS.dto.StoredFile;
+import com.example.miniLMS.service.FileStorageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload and download throughput of {@link FileStorageService} on the local backend in a
+ * temporary directory. New uploads get unique content so they are hashed and written, while
+ * duplicate uploads are hashed and then deduplicated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileStorageBenchmark {
+
+    @Param({"65536", "4194304"})
+    public int fileSize;
+
+    private BenchmarkApplication application;
+    private FileStorageService fileStorageService;
+    private byte[] content;
+    private long uploads;
+    private String storedKey;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        fileStorageService = application.bean(FileStorageService.class);
+        content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        storedKey = fileStorageService.storeFile(file(content)).getFileName();
+    }
+
+    // storeNew writes a new file per call, so the directory is emptied between iterations
+    @TearDown(Level.Iteration)
+    public void clearUploads() throws IOException {
+        application.clearUploads();
+        storedKey = fileStorageService.storeFile(file(content)).getFileName();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public StoredFile storeNew() {
+        // A counter in the first bytes makes every upload a new blob
+        byte[] unique = content.clone();
+        ByteBuffer.wrap(unique).putLong(++uploads);
+        return fileStorageService.storeFile(file(unique));
+    }
+
+    @Benchmark
+    public StoredFile storeDuplicate() {
+        return fileStorageService.storeFile(file(content));
+    }
+
+    @Benchmark
+    public long load() throws IOException {
+        Resource resource = fileStorageService.loadFileAsResource(storedKey);
+        try (InputStream in = resource.getInputStream()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static MockMultipartFile file(byte[] bytes) {
+        return new MockMultipartFile("file", "bench.bin", "application/octet-stream", bytes);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.miniLMS.benchmarks;
+
+import com.example.miniLMS.dto.CourseProgress;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.service.CourseService;
+import com.example.miniLMS.service.LessonService;
+import com.example.miniLMS.service.ProgressService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress reads for courses of different sizes, with a user who completed every other lesson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProgressBenchmark {
+    private static final String USER = "bench-user";
+
+    @Param({"5", "20"})
+    public int modules;
+
+    @Param({"10", "50"})
+    public int lessonsPerModule;
+
+    private BenchmarkApplication application;
+    private CourseService courseService;
+    private ProgressService progressService;
+    private Long courseId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        courseService = application.bean(CourseService.class);
+        progressService = application.bean(ProgressService.class);
+        LessonService lessonService = application.bean(LessonService.class);
+
+        Course course = application.createCourse(modules, lessonsPerModule, 200);
+        courseId = course.getId();
+        List<Module> courseModules = courseService.getCourseById(courseId).orElseThrow().getModules();
+        for (Module module : courseModules) {
+            List<Lesson> lessons = module.getLessons();
+            for (int i = 0; i < lessons.size(); i += 2) {
+                lessonService.markLessonComplete(lessons.get(i).getId(), USER);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public double calculateCourseProgress() {
+        return courseService.calculateCourseProgress(courseId, USER);
+    }
+
+    @Benchmark
+    public CourseProgress courseProgressWithModules() {
+        return progressService.getCourseProgress(courseId, USER);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.miniLMS.benchmarks;
+
+import com.example.miniLMS.dto.CourseOutline;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.service.CourseService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a fully loaded Course/Module/Lesson graph and of the course outline,
+ * with the application's ObjectMapper. The graph is loaded once, so only serialization is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"5", "20"})
+    public int modules;
+
+    @Param({"10", "50"})
+    public int lessonsPerModule;
+
+    private BenchmarkApplication application;
+    private ObjectMapper objectMapper;
+    private Course course;
+    private CourseOutline outline;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        objectMapper = application.bean(ObjectMapper.class);
+        CourseService courseService = application.bean(CourseService.class);
+
+        Long courseId = application.createCourse(modules, lessonsPerModule, 200).getId();
+        course = courseService.getCourseById(courseId).orElseThrow();
+        outline = courseService.getCourseOutline(courseId).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public byte[] courseGraph() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(course);
+    }
+
+    @Benchmark
+    public byte[] courseOutline() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(outline);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.miniLMS.benchmarks;
+
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.service.CourseService;
+import com.example.miniLMS.service.LessonService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Retrieval of a TEXT lesson body as served by /lessons/{id}/content: the stored gzip bytes
+ * for clients accepting gzip, and the decompressed text for the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextContentBenchmark {
+
+    @Param({"1024", "65536"})
+    public int textLength;
+
+    private BenchmarkApplication application;
+    private LessonService lessonService;
+    private Long lessonId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        lessonService = application.bean(LessonService.class);
+        CourseService courseService = application.bean(CourseService.class);
+
+        Course course = new Course();
+        course.setTitle("Text course");
+        course = courseService.createCourse(course);
+        Module module = new Module();
+        module.setTitle("Text module");
+        module = courseService.addModuleToCourse(course.getId(), module);
+        Lesson lesson = new Lesson();
+        lesson.setTitle("Text lesson");
+        lesson.setType(LessonType.TEXT);
+        lesson.setContent(BenchmarkApplication.text(textLength, 7));
+        lessonId = lessonService.createLesson(module.getId(), lesson).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public byte[] gzipAsStored() {
+        return lessonService.getCompressedBody(lessonId).orElseThrow();
+    }
+
+    @Benchmark
+    public byte[] decompressed() throws IOException {
+        byte[] stored = lessonService.getCompressedBody(lessonId).orElseThrow();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(stored))) {
+            return in.readAllBytes();
+        }
+    }
+}
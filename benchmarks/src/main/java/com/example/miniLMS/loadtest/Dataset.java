@@ -0,0 +1,20 @@
+package com.example.miniLMS.loadtest;
+
+import java.util.List;
+
+/**
+ * Ids of a generated dataset, used to build requests.
+ *
+ * @param courseIds        every course
+ * @param lessonIdsByCourse lesson ids of every course, in the order of {@code courseIds}
+ * @param mediaLessonIds   VIDEO and PDF lessons, served from the media corpus
+ * @param userIds          users with progress
+ * @param coursesByUser    indexes into {@code courseIds} of the courses every user has progress in
+ */
+public record Dataset(
+        List<Long> courseIds,
+        List<long[]> lessonIdsByCourse,
+        long[] mediaLessonIds,
+        List<String> userIds,
+        List<int[]> coursesByUser) {
+}
@@ -0,0 +1,253 @@
+package com.example.miniLMS.loadtest;
+
+import com.example.miniLMS.dto.StoredFile;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonBody;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.repository.LessonBodyRepository;
+import com.example.miniLMS.repository.LessonRepository;
+import com.example.miniLMS.repository.ModuleRepository;
+import com.example.miniLMS.service.FileStorageService;
+import com.example.miniLMS.service.LessonService;
+import com.example.miniLMS.service.MediaBlobService;
+import com.example.miniLMS.service.ProgressCounterService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fills the database and storage of a running application with a reproducible dataset.
+ *
+ * <p>The catalog is written through the repositories, one transaction per course, with TEXT
+ * bodies compressed as the application stores them. Progress rows are bulk inserted with JDBC
+ * batches and the progress counters are rebuilt once at the end, which is far faster than
+ * recording millions of completions one by one.
+ */
+@Slf4j
+public class DatasetGenerator {
+    private static final int PROGRESS_BATCH_SIZE = 5000;
+    private static final String[] WORDS = {"lesson", "module", "course", "progress", "video", "learning",
+        "student", "practice", "example", "chapter", "review", "question", "answer", "summary", "algebra",
+        "history", "biology", "design", "network", "database"};
+
+    private final CourseRepository courseRepository;
+    private final ModuleRepository moduleRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonBodyRepository lessonBodyRepository;
+    private final FileStorageService fileStorageService;
+    private final MediaBlobService mediaBlobService;
+    private final ProgressCounterService progressCounterService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DatasetGenerator(ApplicationContext context) {
+        this.courseRepository = context.getBean(CourseRepository.class);
+        this.moduleRepository = context.getBean(ModuleRepository.class);
+        this.lessonRepository = context.getBean(LessonRepository.class);
+        this.lessonBodyRepository = context.getBean(LessonBodyRepository.class);
+        this.fileStorageService = context.getBean(FileStorageService.class);
+        this.mediaBlobService = context.getBean(MediaBlobService.class);
+        this.progressCounterService = context.getBean(ProgressCounterService.class);
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    public Dataset generate(DatasetSpec spec) {
+        Random random = new Random(spec.seed());
+        long started = System.currentTimeMillis();
+
+        List<StoredFile> corpus = storeMediaCorpus(spec, random);
+        List<Long> courseIds = new ArrayList<>(spec.courses());
+        List<long[]> lessonIdsByCourse = new ArrayList<>(spec.courses());
+        List<Long> mediaLessonIds = new ArrayList<>();
+        for (int c = 0; c < spec.courses(); c++) {
+            int courseNumber = c;
+            long[] lessonIds = transactionTemplate.execute(status ->
+                createCourse(spec, courseNumber, corpus, random, courseIds, mediaLessonIds));
+            lessonIdsByCourse.add(lessonIds);
+            if ((c + 1) % 100 == 0) {
+                log.info("Created {} of {} courses", c + 1, spec.courses());
+            }
+        }
+        log.info("Created {} courses with {} lessons in {} ms", spec.courses(), spec.lessons(),
+            System.currentTimeMillis() - started);
+
+        List<String> userIds = new ArrayList<>(spec.users());
+        List<int[]> coursesByUser = new ArrayList<>(spec.users());
+        long progressRows = insertProgress(spec, random, lessonIdsByCourse, userIds, coursesByUser);
+        progressCounterService.rebuildAll();
+        log.info("Generated {} progress rows for {} users; dataset ready after {} ms", progressRows,
+            spec.users(), System.currentTimeMillis() - started);
+
+        return new Dataset(courseIds, lessonIdsByCourse,
+            mediaLessonIds.stream().mapToLong(Long::longValue).toArray(), userIds, coursesByUser);
+    }
+
+    private List<StoredFile> storeMediaCorpus(DatasetSpec spec, Random random) {
+        List<StoredFile> corpus = new ArrayList<>(spec.mediaFiles());
+        for (int i = 0; i < spec.mediaFiles(); i++) {
+            byte[] content = new byte[spec.mediaSizeBytes()];
+            random.nextBytes(content);
+            // Alternating videos and PDFs; the content type is taken from the name
+            String name = i % 2 == 0 ? "media-" + i + ".mp4" : "media-" + i + ".pdf";
+            corpus.add(fileStorageService.storeFile(new MockMultipartFile("file", name, null, content)));
+        }
+        return corpus;
+    }
+
+    private long[] createCourse(DatasetSpec spec, int courseNumber, List<StoredFile> corpus, Random random,
+            List<Long> courseIds, List<Long> mediaLessonIds) {
+        Course course = new Course();
+        course.setTitle("Course " + courseNumber + " " + words(random, 3));
+        course.setDescription(words(random, 30));
+        course.setModules(new ArrayList<>());
+        course = courseRepository.save(course);
+        courseIds.add(course.getId());
+
+        List<Long> lessonIds = new ArrayList<>();
+        for (int m = 0; m < spec.modulesPerCourse(); m++) {
+            Module module = new Module();
+            module.setTitle("Module " + m + " " + words(random, 2));
+            module.setSummary(words(random, 20));
+            module.setCourse(course);
+            module.setLessons(new ArrayList<>());
+            module = moduleRepository.save(module);
+
+            List<Lesson> lessons = new ArrayList<>(spec.lessonsPerModule());
+            List<byte[]> bodies = new ArrayList<>(spec.lessonsPerModule());
+            for (int l = 0; l < spec.lessonsPerModule(); l++) {
+                Lesson lesson = new Lesson();
+                lesson.setTitle("Lesson " + m + "." + l + " " + words(random, 3));
+                lesson.setModule(module);
+                if (!corpus.isEmpty() && random.nextDouble() < spec.mediaLessonRatio()) {
+                    StoredFile file = corpus.get(random.nextInt(corpus.size()));
+                    lesson.setType(file.getContentType().equals("application/pdf") ? LessonType.PDF : LessonType.VIDEO);
+                    lesson.setContent(file.getFileName());
+                    lesson.setContentHash(file.getChecksum());
+                    lesson.setFileName(file.getFileName());
+                    lesson.setContentType(file.getContentType());
+                    lesson.setContentLength(file.getSize());
+                    bodies.add(null);
+                } else {
+                    byte[] text = text(random, spec.textLength()).getBytes(StandardCharsets.UTF_8);
+                    lesson.setType(LessonType.TEXT);
+                    lesson.setContentHash(FileStorageService.sha256Hex(text));
+                    lesson.setContentType(LessonService.TEXT_CONTENT_TYPE);
+                    lesson.setContentLength((long) text.length);
+                    bodies.add(gzip(text));
+                }
+                lessons.add(lesson);
+            }
+            lessonRepository.saveAll(lessons);
+
+            List<LessonBody> lessonBodies = new ArrayList<>();
+            for (int i = 0; i < lessons.size(); i++) {
+                Lesson lesson = lessons.get(i);
+                lessonIds.add(lesson.getId());
+                if (bodies.get(i) != null) {
+                    LessonBody body = new LessonBody();
+                    body.setLesson(lesson);
+                    body.setGzipContent(bodies.get(i));
+                    lessonBodies.add(body);
+                } else {
+                    mediaBlobService.retain(lesson.getContent(), lesson.getContentLength(), lesson.getContentType());
+                    mediaLessonIds.add(lesson.getId());
+                }
+            }
+            lessonBodyRepository.saveAll(lessonBodies);
+        }
+        return lessonIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Every user gets progress in a few random courses, completing a random leading share of
+     * each, until the requested number of rows is reached.
+     */
+    private long insertProgress(DatasetSpec spec, Random random, List<long[]> lessonIdsByCourse,
+            List<String> userIds, List<int[]> coursesByUser) {
+        long perUser = Math.max(1, spec.progressRows() / Math.max(1, spec.users()));
+        long lessonsPerCourse = (long) spec.modulesPerCourse() * spec.lessonsPerModule();
+        int coursesPerUser = (int) Math.min(spec.courses(), Math.max(1, (2 * perUser + lessonsPerCourse - 1) / lessonsPerCourse));
+
+        List<Object[]> batch = new ArrayList<>(PROGRESS_BATCH_SIZE);
+        long inserted = 0;
+        for (int u = 0; u < spec.users(); u++) {
+            String userId = "user-" + u;
+            userIds.add(userId);
+            int[] courses = random.ints(0, spec.courses()).distinct().limit(coursesPerUser).toArray();
+            coursesByUser.add(courses);
+
+            long remaining = Math.min(perUser, spec.progressRows() - inserted);
+            for (int course : courses) {
+                long[] lessons = lessonIdsByCourse.get(course);
+                int completed = (int) Math.min(remaining, lessons.length * (0.2 + 0.8 * random.nextDouble()));
+                for (int i = 0; i < completed; i++) {
+                    batch.add(new Object[] {userId, lessons[i]});
+                }
+                remaining -= completed;
+                inserted += completed;
+                if (batch.size() >= PROGRESS_BATCH_SIZE) {
+                    flushProgress(batch);
+                }
+            }
+        }
+        flushProgress(batch);
+        return inserted;
+    }
+
+    private void flushProgress(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Raw nextval consumes a whole allocation block per row, so ids never collide with Hibernate's
+        jdbcTemplate.batchUpdate(
+            "insert into lesson_progress (id, user_id, lesson_id, completed) values (nextval('lesson_progress_seq'), ?, ?, true)",
+            batch);
+        batch.clear();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
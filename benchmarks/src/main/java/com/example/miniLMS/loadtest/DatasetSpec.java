@@ -0,0 +1,48 @@
+package com.example.miniLMS.loadtest;
+
+import java.util.Map;
+
+/**
+ * Shape of a generated dataset. The same spec and seed always produce the same data.
+ *
+ * @param courses           number of courses
+ * @param modulesPerCourse  modules in every course
+ * @param lessonsPerModule  lessons in every module
+ * @param textLength        characters of every TEXT lesson
+ * @param mediaFiles        distinct files in the media corpus, shared by the media lessons
+ * @param mediaSizeBytes    size of every corpus file
+ * @param mediaLessonRatio  fraction of lessons that are VIDEO or PDF lessons instead of TEXT
+ * @param users             users with progress
+ * @param progressRows      lesson progress rows to insert, spread over the users
+ * @param seed              random seed
+ */
+public record DatasetSpec(
+        int courses,
+        int modulesPerCourse,
+        int lessonsPerModule,
+        int textLength,
+        int mediaFiles,
+        int mediaSizeBytes,
+        double mediaLessonRatio,
+        int users,
+        long progressRows,
+        long seed) {
+
+    static DatasetSpec from(Map<String, String> options) {
+        return new DatasetSpec(
+            Integer.parseInt(options.getOrDefault("courses", "100")),
+            Integer.parseInt(options.getOrDefault("modules", "10")),
+            Integer.parseInt(options.getOrDefault("lessons", "20")),
+            Integer.parseInt(options.getOrDefault("text-length", "2000")),
+            Integer.parseInt(options.getOrDefault("media-files", "20")),
+            Integer.parseInt(options.getOrDefault("media-size-bytes", "1048576")),
+            Double.parseDouble(options.getOrDefault("media-lesson-ratio", "0.1")),
+            Integer.parseInt(options.getOrDefault("users", "10000")),
+            Long.parseLong(options.getOrDefault("progress-rows", "1000000")),
+            Long.parseLong(options.getOrDefault("seed", "42")));
+    }
+
+    long lessons() {
+        return (long) courses * modulesPerCourse * lessonsPerModule;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.miniLMS.loadtest;
+
+import com.example.miniLMS.MiniLmsApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * End-to-end load test. Starts the application on a random port, fills it with a generated
+ * dataset and drives the REST endpoints with a weighted mix of user actions from many
+ * concurrent clients, then prints latency percentiles and throughput per request type.
+ *
+ * <p>Options are given as {@code --name=value}: the {@link DatasetSpec} options, plus
+ * {@code duration} (default PT60S), {@code warmup} (PT10S), {@code concurrency} (64) and
+ * {@code mix} (default {@code browse=40,progress=30,complete=20,download=10}). Every other
+ * {@code --spring...} or application property is passed to the application, so
+ * {@code --spring.datasource.url=jdbc:postgresql://localhost:5432/minilms_load} runs against a
+ * local Postgres instead of the default in-memory H2 database.
+ */
+@Slf4j
+public class LoadTest {
+
+    enum Request { CATALOG, OUTLINE, PROGRESS, COMPLETE, DOWNLOAD }
+
+    enum Action { BROWSE, PROGRESS, COMPLETE, DOWNLOAD }
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String baseUrl;
+    private final Dataset dataset;
+
+    private LoadTest(String baseUrl, Dataset dataset) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+            applicationArgs.add(arg);
+        }
+        DatasetSpec spec = DatasetSpec.from(options);
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        Map<Action, Integer> mix = parseMix(options.getOrDefault("mix", "browse=40,progress=30,complete=20,download=10"));
+
+        Path uploadDir = Files.createTempDirectory("mini-lms-load");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MiniLmsApplication.class)
+                .properties(
+                    "server.port=0",
+                    "spring.datasource.url=jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.jpa.hibernate.ddl-auto=create-drop",
+                    "file.upload-dir=" + uploadDir,
+                    "logging.level.com.example.miniLMS=WARN",
+                    "logging.level.com.example.miniLMS.loadtest=INFO")
+                .run(applicationArgs.toArray(String[]::new))) {
+            Dataset dataset = new DatasetGenerator(context).generate(spec);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTest loadTest = new LoadTest("http://localhost:" + port, dataset);
+
+            log.info("Warming up for {} s", warmup.toSeconds());
+            loadTest.run(mix, concurrency, warmup, spec.seed());
+            log.info("Running {} clients for {} s", concurrency, duration.toSeconds());
+            Map<Request, LatencyRecorder> results = loadTest.run(mix, concurrency, duration, spec.seed() + 1);
+            System.out.println(report(results, duration));
+        }
+    }
+
+    private Map<Request, LatencyRecorder> run(Map<Action, Integer> mix, int concurrency, Duration duration, long seed)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Map<Request, LatencyRecorder>>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Random random = new Random(seed * 31 + i);
+                workers.add(executor.submit(() -> work(mix, random, deadline)));
+            }
+        }
+        Map<Request, LatencyRecorder> merged = new EnumMap<>(Request.class);
+        for (Future<Map<Request, LatencyRecorder>> worker : workers) {
+            worker.get().forEach((request, recorder) ->
+                merged.computeIfAbsent(request, r -> new LatencyRecorder()).merge(recorder));
+        }
+        return merged;
+    }
+
+    /**
+     * One simulated client: picks an action by weight and a user, then performs the action's
+     * requests back to back until the deadline.
+     */
+    private Map<Request, LatencyRecorder> work(Map<Action, Integer> mix, Random random, long deadline) {
+        Map<Request, LatencyRecorder> recorders = new EnumMap<>(Request.class);
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        while (System.nanoTime() < deadline) {
+            int user = random.nextInt(dataset.userIds().size());
+            String userId = dataset.userIds().get(user);
+            int[] userCourses = dataset.coursesByUser().get(user);
+            int course = userCourses.length > 0 && random.nextInt(4) > 0
+                ? userCourses[random.nextInt(userCourses.length)]
+                : random.nextInt(dataset.courseIds().size());
+            Long courseId = dataset.courseIds().get(course);
+
+            switch (pick(mix, totalWeight, random)) {
+                case BROWSE -> {
+                    long after = Math.max(0, courseId - 1 - random.nextInt(20));
+                    send(recorders, Request.CATALOG, get("/courses/catalog?limit=20&after=" + after));
+                    send(recorders, Request.OUTLINE, get("/courses/" + courseId + "/outline"));
+                }
+                case PROGRESS -> send(recorders, Request.PROGRESS,
+                    get("/courses/" + courseId + "/progress/details?userId=" + userId));
+                case COMPLETE -> {
+                    long[] lessons = dataset.lessonIdsByCourse().get(course);
+                    long lessonId = lessons[random.nextInt(lessons.length)];
+                    send(recorders, Request.COMPLETE, HttpRequest.newBuilder(uri("/lessons/" + lessonId + "/progress?userId=" + userId))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build());
+                }
+                case DOWNLOAD -> {
+                    long[] media = dataset.mediaLessonIds();
+                    if (media.length > 0) {
+                        send(recorders, Request.DOWNLOAD, get("/lessons/" + media[random.nextInt(media.length)] + "/content"));
+                    }
+                }
+            }
+        }
+        return recorders;
+    }
+
+    private void send(Map<Request, LatencyRecorder> recorders, Request type, HttpRequest request) {
+        long started = System.nanoTime();
+        boolean success;
+        try {
+            // Bodies are read completely, so downloads are timed until the last byte
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        recorders.computeIfAbsent(type, t -> new LatencyRecorder()).record(System.nanoTime() - started, success);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static Action pick(Map<Action, Integer> mix, int totalWeight, Random random) {
+        int choice = random.nextInt(totalWeight);
+        for (Map.Entry<Action, Integer> entry : mix.entrySet()) {
+            choice -= entry.getValue();
+            if (choice < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private static Map<Action, Integer> parseMix(String mix) {
+        Map<Action, Integer> weights = new EnumMap<>(Action.class);
+        for (String part : mix.split(",")) {
+            String[] weight = part.split("=");
+            weights.put(Action.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The mix needs a positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static String report(Map<Request, LatencyRecorder> results, Duration duration) {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+            "%n%-10s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+            "request", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        LatencyRecorder total = new LatencyRecorder();
+        results.forEach((request, recorder) -> {
+            report.append(line(request.name().toLowerCase(Locale.ROOT), recorder, duration));
+            total.merge(recorder);
+        });
+        report.append(line("total", total, duration));
+        return report.toString();
+    }
+
+    private static String line(String name, LatencyRecorder recorder, Duration duration) {
+        long[] sorted = recorder.sorted();
+        return String.format(Locale.ROOT, "%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+            name, recorder.count(), recorder.errors(), recorder.count() / (duration.toMillis() / 1000.0),
+            LatencyRecorder.percentileMillis(sorted, 50), LatencyRecorder.percentileMillis(sorted, 90),
+            LatencyRecorder.percentileMillis(sorted, 99), LatencyRecorder.percentileMillis(sorted, 99.9),
+            LatencyRecorder.percentileMillis(sorted, 100));
+    }
+}
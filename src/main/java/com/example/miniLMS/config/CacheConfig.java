@@ -0,0 +1,35 @@
+package com.example.miniLMS.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String COURSES = "courses";
+    public static final String COURSE_OUTLINES = "courseOutlines";
+    public static final String MODULES = "modules";
+    public static final String MODULE_OUTLINES = "moduleOutlines";
+    public static final String LESSONS = "lessons";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${catalog.cache.max-size:10000}") long maxSize,
+            @Value("${catalog.cache.ttl:PT10M}") Duration ttl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+            COURSES, COURSE_OUTLINES, MODULES, MODULE_OUTLINES, LESSONS);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
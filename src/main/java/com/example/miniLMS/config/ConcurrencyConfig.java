@@ -0,0 +1,79 @@
+package com.example.miniLMS.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Keeps slow clients from tying up database connections, which matters most once requests
+ * run on virtual threads ({@code spring.threads.virtual.enabled=true}) and are no longer
+ * limited by the size of the Tomcat thread pool.
+ */
+@Configuration
+@Slf4j
+public class ConcurrencyConfig {
+    // Streaming endpoints: the response may take minutes for a slow client, or stay open for event streams
+    private static final String[] STREAMING_PATHS = {
+        "/media/**", "/lessons/*/content", "/lessons/uploads/*", "/catalog/import", "/catalog/export",
+        "/courses/*/progress/export", "/courses/*/progress/stream"};
+
+    /**
+     * Replaces Spring Boot's open-session-in-view interceptor, which holds the request's JDBC
+     * connection until the response is complete, with one that skips the streaming endpoints.
+     * Those endpoints load what they need up front and then only do file or network I/O.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.jpa", name = "open-in-view", havingValue = "true", matchIfMissing = true)
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor(EntityManagerFactory entityManagerFactory) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        return interceptor;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.jpa", name = "open-in-view", havingValue = "true", matchIfMissing = true)
+    public WebMvcConfigurer openEntityManagerInViewConfigurer(OpenEntityManagerInViewInterceptor interceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addWebRequestInterceptor(interceptor).excludePathPatterns(STREAMING_PATHS);
+            }
+        };
+    }
+
+    /**
+     * With virtual threads every waiting request is cheap, so thousands of them can queue for
+     * the connection pool. The pool size stays the hard limit on Postgres connections, and
+     * unless configured otherwise requests give up after {@code db.pool.virtual-threads.max-wait}
+     * (default 5 seconds) instead of Hikari's 30, so an overload fails fast rather than piling up.
+     */
+    @Bean
+    public static BeanPostProcessor virtualThreadPoolGuard(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+                    if (!environment.containsProperty("spring.datasource.hikari.connection-timeout")) {
+                        Duration maxWait = environment.getProperty(
+                            "db.pool.virtual-threads.max-wait", Duration.class, Duration.ofSeconds(5));
+                        dataSource.setConnectionTimeout(maxWait.toMillis());
+                    }
+                    log.info("Virtual threads enabled: database access limited to {} pooled connections, "
+                        + "waiting at most {} ms", dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+}
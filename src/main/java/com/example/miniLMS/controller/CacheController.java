@@ -0,0 +1,46 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.dto.CatalogCacheStats;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+@CrossOrigin
+@Tag(name = "Cache", description = "Catalog cache statistics")
+public class CacheController {
+    private final CacheManager cacheManager;
+
+    @Operation(
+            summary = "Get catalog cache statistics",
+            description = "Returns size, hit, miss and eviction counts of every catalog cache"
+    )
+    @GetMapping("/stats")
+    public ResponseEntity<List<CatalogCacheStats>> getCacheStats() {
+        List<CatalogCacheStats> stats = cacheManager.getCacheNames().stream()
+            .map(cacheManager::getCache)
+            .filter(CaffeineCache.class::isInstance)
+            .map(CaffeineCache.class::cast)
+            .map(cache -> {
+                CacheStats nativeStats = cache.getNativeCache().stats();
+                return new CatalogCacheStats(
+                    cache.getName(),
+                    cache.getNativeCache().estimatedSize(),
+                    nativeStats.hitCount(),
+                    nativeStats.missCount(),
+                    nativeStats.hitRate(),
+                    nativeStats.evictionCount());
+            })
+            .toList();
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.dto.CatalogImportResult;
+import com.example.miniLMS.service.CatalogTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/catalog")
+@RequiredArgsConstructor
+@CrossOrigin
+@Tag(name = "Catalog", description = "Bulk import and export of courses, modules and lessons as JSON Lines")
+public class CatalogController {
+    static final String NDJSON = "application/x-ndjson";
+    static final String JSONL = "application/jsonl";
+
+    private final CatalogTransferService catalogTransferService;
+
+    @Operation(
+            summary = "Import a catalog",
+            description = "Reads one JSON record per line: a course, then its modules, each followed by its lessons. "
+                + "Lines are committed in batches; on an invalid line the import stops and the response "
+                + "reports the line and how much was imported before it"
+    )
+    @PostMapping(value = "/import", consumes = {NDJSON, JSONL})
+    public ResponseEntity<CatalogImportResult> importCatalog(HttpServletRequest request) throws IOException {
+        // Read from the request stream so the upload is never held in memory as a whole
+        CatalogImportResult result = catalogTransferService.importCatalog(request.getInputStream());
+        if (result.getError() != null) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(
+            summary = "Export the catalog",
+            description = "Writes every course, module and lesson in the import format"
+    )
+    @GetMapping("/export")
+    public void exportCatalog(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("catalog.jsonl").build().toString());
+        catalogTransferService.exportCatalog(response.getOutputStream());
+    }
+}
@@ -1,16 +1,32 @@
 package com.example.miniLMS.controller;
 
+import com.example.miniLMS.dto.CatalogPage;
+import com.example.miniLMS.dto.CourseOutline;
+import com.example.miniLMS.dto.CourseProgress;
+import com.example.miniLMS.dto.EntityVersion;
+import com.example.miniLMS.dto.StoredFile;
 import com.example.miniLMS.entity.Course;
 import com.example.miniLMS.entity.Module;
 import com.example.miniLMS.service.CourseService;
+import com.example.miniLMS.service.FileStorageService;
+import com.example.miniLMS.service.ProgressExportService;
+import com.example.miniLMS.service.ProgressStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +40,9 @@ import java.util.Map;
 @Tag(name = "Course Management", description = "APIs for managing courses and their modules")
 public class CourseController {
     private final CourseService courseService;
+    private final FileStorageService fileStorageService;
+    private final ProgressExportService progressExportService;
+    private final ProgressStreamService progressStreamService;
 
     @Operation(
             summary = "Create a new course",
@@ -62,18 +81,59 @@ public class CourseController {
         }
     }
 
+    @Operation(
+            summary = "Browse the course catalog",
+            description = "Returns a page of course summaries ordered by id. Pass the returned nextCursor as 'after' to get the next page"
+    )
+    @GetMapping("/catalog")
+    public ResponseEntity<CatalogPage> getCatalog(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(courseService.getCatalogPage(after, limit));
+        } catch (Exception e) {
+            log.error("Error fetching course catalog: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @Operation(
             summary = "Get course by ID",
-            description = "Retrieves a specific course by its ID"
+            description = "Retrieves a specific course by its ID. Supports conditional requests with If-None-Match and If-Modified-Since"
     )
     @GetMapping("/{id}")
-    public ResponseEntity<Course> getCourseById(@PathVariable Long id) {
+    public ResponseEntity<Course> getCourseById(@PathVariable Long id, WebRequest request) {
         try {
-            return courseService.getCourseById(id)
+            Course course = courseService.getCourseById(id).orElse(null);
+            if (course == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            // Validators come from the snapshot that is served, which may be a cached copy,
+            // so a client never stores a body under an ETag it does not belong to
+            EntityVersion version = new EntityVersion(course.getVersion(), course.getLastModified());
+            if (request.checkNotModified("\"course-" + id + "-v" + version.getVersion() + "\"",
+                    version.getLastModifiedMillis())) {
+                return null;
+            }
+            return ResponseEntity.ok(course);
+        } catch (Exception e) {
+            log.error("Error fetching course by id: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Get course outline",
+            description = "Retrieves a course with its modules and lesson headers (id, title, type), without lesson content"
+    )
+    @GetMapping("/{id}/outline")
+    public ResponseEntity<CourseOutline> getCourseOutline(@PathVariable Long id) {
+        try {
+            return courseService.getCourseOutline(id)
                     .map(ResponseEntity::ok)
                     .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
         } catch (Exception e) {
-            log.error("Error fetching course by id: ", e);
+            log.error("Error fetching course outline: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -95,6 +155,72 @@ public class CourseController {
         }
     }
 
+    @Operation(
+            summary = "Get course progress with module breakdown",
+            description = "Returns the overall progress of a user in a course together with the progress of every module"
+    )
+    @GetMapping("/{courseId}/progress/details")
+    public ResponseEntity<CourseProgress> getCourseProgressDetails(
+            @PathVariable Long courseId,
+            @RequestParam String userId) {
+        try {
+            return ResponseEntity.ok(courseService.getCourseProgressDetails(courseId, userId));
+        } catch (Exception e) {
+            log.error("Error calculating course progress details: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Stream course progress",
+            description = "Server-Sent Events stream of the user's progress in the course. Sends the current progress "
+                + "as a 'progress' event, then a new one whenever lessons of the course are completed"
+    )
+    @GetMapping(path = "/{courseId}/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCourseProgress(
+            @PathVariable Long courseId,
+            @RequestParam String userId) {
+        try {
+            return progressStreamService.subscribe(courseId, userId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Rejecting progress stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @Operation(
+            summary = "Export course progress",
+            description = "Streams the progress of every user on every lesson of the course as CSV (default) or JSON Lines, "
+                + "ordered by module, lesson and user"
+    )
+    @GetMapping("/{courseId}/progress/export")
+    public ResponseEntity<?> exportCourseProgress(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        ProgressExportService.Format exportFormat;
+        try {
+            exportFormat = ProgressExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (!progressExportService.courseExists(courseId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("course-" + courseId + "-progress." + exportFormat.getExtension())
+            .build().toString());
+        progressExportService.exportCourseProgress(courseId, exportFormat, response.getOutputStream());
+        // A null body tells Spring MVC the response has been handled
+        return null;
+    }
+
     @Operation(
             summary = "Add module to course",
             description = "Adds a new module to an existing course. Module title is required."
@@ -129,4 +255,29 @@ public class CourseController {
                 .body(Collections.singletonMap("error", e.getMessage()));
         }
     }
+
+    @Operation(
+            summary = "Upload course image",
+            description = "Stores an image and points the course thumbnail and cover at resized variants of it. Variants are generated in the background; until then the original is served"
+    )
+    @PostMapping(path = "/{courseId}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadCourseImage(
+            @PathVariable Long courseId,
+            @RequestParam MultipartFile file) {
+        try {
+            StoredFile image = fileStorageService.storeFile(file);
+            Course course = courseService.setCourseImage(courseId, image);
+            return ResponseEntity.ok(Map.of(
+                "id", course.getId(),
+                "thumbnailUrl", course.getThumbnailUrl(),
+                "coverImageUrl", course.getCoverImageUrl()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error uploading course image: ", e);
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -1,24 +1,43 @@
 package com.example.miniLMS.controller;
 
+import com.example.miniLMS.dto.BufferStats;
+import com.example.miniLMS.dto.ProgressEntry;
+import com.example.miniLMS.dto.StoredFile;
+import com.example.miniLMS.dto.UploadInitRequest;
 import com.example.miniLMS.entity.Lesson;
-import com.example.miniLMS.entity.LessonProgress;
 import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.service.ChunkedUploadService;
+import com.example.miniLMS.service.ImageDerivativeService;
 import com.example.miniLMS.service.LessonService;
+import com.example.miniLMS.service.MisdirectedUploadException;
 import com.example.miniLMS.service.FileStorageService;
+import com.example.miniLMS.service.ProgressBatchService;
+import com.example.miniLMS.service.ProgressWriteBuffer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.extern.slf4j.Slf4j;
 
-import java.nio.file.Path;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/lessons")
@@ -32,6 +51,21 @@ public class LessonController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private ProgressBatchService progressBatchService;
+
+    @Autowired
+    private ProgressWriteBuffer progressWriteBuffer;
+
+    @Autowired
+    private MediaResponder mediaResponder;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
     @Operation(
             summary = "Create a new lesson",
             description = "Creates a new lesson within a specified module. Module ID is required."
@@ -63,8 +97,12 @@ public class LessonController {
                     return ResponseEntity.badRequest().body("File is required for " + type + " type lessons");
                 }
                 log.info("Received file: {}, size: {}", file.getOriginalFilename(), file.getSize());
-                String fileName = fileStorageService.storeFile(file);
-                lesson.setContent(fileName);
+                StoredFile storedFile = fileStorageService.storeFile(file);
+                lesson.setContent(storedFile.getFileName());
+                lesson.setFileName(StringUtils.cleanPath(file.getOriginalFilename()));
+                lesson.setContentHash(storedFile.getChecksum());
+                lesson.setContentType(storedFile.getContentType());
+                lesson.setContentLength(storedFile.getSize());
             }
 
             Lesson savedLesson = lessonService.createLesson(moduleId, lesson);
@@ -78,6 +116,103 @@ public class LessonController {
         }
     }
 
+    @Operation(
+            summary = "Start a resumable file upload",
+            description = "Opens an upload session for a VIDEO, IMAGE or PDF lesson. The file is then sent in chunks with PUT and turned into a lesson on completion"
+    )
+    @PostMapping("/uploads")
+    public ResponseEntity<?> initUpload(@RequestBody UploadInitRequest uploadRequest) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.init(uploadRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Upload a chunk",
+            description = "Appends the raw request body at the given offset, which must equal the number of bytes received so far. A mismatching offset returns 409 with the offset to resume from"
+    )
+    @PutMapping(path = "/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.appendChunk(uploadId, offset, request.getInputStream()));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (MisdirectedUploadException e) {
+            return misdirected(e);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage(), "status", chunkedUploadService.getStatus(uploadId)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            // The client resumes from the offset reported by the status endpoint
+            log.warn("Chunk upload {} interrupted: {}", uploadId, e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("error", "Chunk upload failed: " + e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Get upload status",
+            description = "Returns the number of bytes received so far, which is the offset to resume from"
+    )
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getUploadStatus(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.getStatus(uploadId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (MisdirectedUploadException e) {
+            return misdirected(e);
+        }
+    }
+
+    @Operation(
+            summary = "Complete an upload",
+            description = "Verifies the size and optional SHA-256 checksum of the uploaded file and creates the lesson"
+    )
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.complete(uploadId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (MisdirectedUploadException e) {
+            return misdirected(e);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Abort an upload",
+            description = "Discards an upload session and the bytes received so far"
+    )
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (MisdirectedUploadException e) {
+            return misdirected(e);
+        }
+    }
+
+    // 421 Misdirected Request, naming the instance the upload has to be routed to
+    private static ResponseEntity<Map<String, String>> misdirected(MisdirectedUploadException e) {
+        return ResponseEntity.status(421).body(Map.of("error", e.getMessage(), "node", e.getNode()));
+    }
+
     @Operation(
             summary = "Get all lessons in a module",
             description = "Retrieves all lessons for a specified module"
@@ -94,51 +229,168 @@ public class LessonController {
             description = "Marks a lesson as complete for a specific user"
     )
     @PostMapping("/{lessonId}/progress")
-    public ResponseEntity<LessonProgress> markLessonComplete(
+    public ResponseEntity<?> markLessonComplete(
             @PathVariable Long lessonId,
             @RequestParam String userId) {
+        if (lessonService.isWriteBehindEnabled()) {
+            try {
+                lessonService.submitLessonComplete(lessonId, userId);
+            } catch (IllegalStateException e) {
+                log.warn("Rejecting completion of lesson {}: {}", lessonId, e.getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+            }
+            return ResponseEntity.accepted()
+                .body(Map.of("lessonId", lessonId, "userId", userId, "status", "QUEUED"));
+        }
         return ResponseEntity.ok(lessonService.markLessonComplete(lessonId, userId));
     }
 
+    @Operation(
+            summary = "Get write-behind buffer statistics",
+            description = "Returns the depth of the progress write-behind buffer and its flush latencies, read from the lms.progress.buffer meters"
+    )
+    @GetMapping("/progress/buffer")
+    public ResponseEntity<BufferStats> getProgressBufferStats() {
+        return ResponseEntity.ok(progressWriteBuffer.getStats());
+    }
+
+    @Operation(
+            summary = "Mark many lessons as complete",
+            description = "Records a batch of (userId, lessonId) completions. Already completed pairs and duplicates are ignored, so a batch can be safely retried"
+    )
+    @PostMapping("/progress/batch")
+    public ResponseEntity<?> markLessonsComplete(@RequestBody List<ProgressEntry> entries) {
+        try {
+            return ResponseEntity.ok(progressBatchService.recordCompletions(entries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @Operation(
             summary = "Fetches the content of the lesson",
-            description = "this end point is for fetching the content of the lesson based on its type"
+            description = "Returns TEXT content, gzip encoded as stored when the client accepts it. Files (VIDEO, IMAGE, PDF) are streamed inline with HTTP Range support, so media players can seek. IMAGE lessons can be requested in a smaller width. Supports conditional requests with If-None-Match and If-Modified-Since"
     )
     @GetMapping("/{lessonId}/content")
-    public ResponseEntity<?> getLessonContent(@PathVariable Long lessonId) {
+    public ResponseEntity<?> getLessonContent(
+            @PathVariable Long lessonId,
+            @Parameter(description = "Preferred width of an IMAGE lesson; the nearest generated variant is served")
+            @RequestParam(required = false) Integer width,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         try {
-            Object content = lessonService.getLessonContent(lessonId);
+            Lesson lesson = lessonService.getLessonById(lessonId).orElse(null);
+            if (lesson == null) {
+                return ResponseEntity.notFound().build();
+            }
 
-            // If content is a String, it's TEXT type
-            if (content instanceof String) {
-                return ResponseEntity.ok(content);
+            if (width != null && lesson.getType() == LessonType.IMAGE) {
+                String variant = imageDerivativeService.findVariant(lesson.getContent(), width).orElse(null);
+                if (variant != null) {
+                    if (new ServletWebRequest(request, response).checkNotModified("\"" + variant + "\"")) {
+                        return null;
+                    }
+                    return mediaResponder.respond(variant, variant + ".jpg", MediaType.IMAGE_JPEG, null, true, request, response);
+                }
             }
 
-            // If content is a Resource, it's a file (VIDEO, IMAGE, PDF)
-            if (content instanceof Resource) {
-                Resource resource = (Resource) content;
-                Lesson lesson = lessonService.getLessonById(lessonId)
-                    .orElseThrow(() -> new RuntimeException("Lesson not found"));
-
-                String contentType = switch (lesson.getType()) {
-                    case VIDEO -> "video/mp4";
-                    case IMAGE -> "image/jpeg";
-                    case PDF -> "application/pdf";
-                    default -> "application/octet-stream";
-                };
-
-                return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
+            // TEXT bodies are stored gzip compressed and sent as stored to clients accepting gzip
+            boolean compressedText = lesson.getType() == LessonType.TEXT && lesson.getContent() == null;
+            boolean sendGzip = compressedText && acceptsGzip(request);
+            if (compressedText) {
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
             }
 
-            return ResponseEntity.internalServerError()
-                .body("Unexpected content type returned");
+            // Lesson content never changes, so its hash is a strong validator; 304s need no file access.
+            // Each content encoding is a separate representation with its own validator.
+            String validator = lesson.getContentHash() != null
+                ? lesson.getContentHash()
+                : "lesson-" + lessonId + "-v" + lesson.getVersion();
+            String etag = "\"" + validator + (sendGzip ? "-gzip" : "") + "\"";
+            long lastModified = lesson.getLastModified() == null ? -1 : lesson.getLastModified().toEpochMilli();
+            if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+                return null;
+            }
+
+            if (lesson.getType() == LessonType.TEXT) {
+                if (!compressedText) {
+                    return ResponseEntity.ok(lesson.getContent());
+                }
+                return writeTextBody(lesson, sendGzip, request, response);
+            }
+
+            // Legacy lessons stored the file under "{millis}_{originalName}" and have no metadata
+            String fileName = lesson.getFileName() != null ? lesson.getFileName() : lesson.getContent();
+            MediaType contentType = lesson.getContentType() != null
+                ? MediaType.parseMediaType(lesson.getContentType())
+                : MediaTypeFactory.getMediaType(fileName)
+                    .orElse(MediaType.parseMediaType(lesson.getType().getDefaultContentType()));
+            return mediaResponder.respond(lesson.getContent(), fileName, contentType, lesson.getContentLength(),
+                true, request, response);
         } catch (Exception e) {
+            log.error("Error retrieving content of lesson {}", lessonId, e);
             return ResponseEntity.internalServerError()
                 .body("Error retrieving content: " + e.getMessage());
         }
     }
+
+    private ResponseEntity<?> writeTextBody(
+            Lesson lesson,
+            boolean sendGzip,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        byte[] body = lessonService.getCompressedBody(lesson.getId()).orElse(null);
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+        MediaType contentType = MediaType.parseMediaType(LessonService.TEXT_CONTENT_TYPE);
+        if (sendGzip) {
+            return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentLength(body.length)
+                .body(body);
+        }
+
+        response.setContentType(contentType.toString());
+        if (lesson.getContentLength() != null) {
+            response.setContentLengthLong(lesson.getContentLength());
+        }
+        if (!"HEAD".equals(request.getMethod())) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                in.transferTo(response.getOutputStream());
+            }
+        }
+        // A null body tells Spring MVC the response has been handled
+        return null;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) == 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
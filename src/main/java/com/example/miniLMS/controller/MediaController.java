@@ -0,0 +1,85 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.entity.MediaBlob;
+import com.example.miniLMS.service.FileStorageService;
+import com.example.miniLMS.service.ImageDerivativeService;
+import com.example.miniLMS.service.MediaBlobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/media")
+@RequiredArgsConstructor
+@CrossOrigin
+@Tag(name = "Media", description = "Content-addressed media files")
+@Slf4j
+public class MediaController {
+    // The URL names the content, so it can be cached for as long as clients care to
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    private final MediaBlobService mediaBlobService;
+    private final MediaResponder mediaResponder;
+    private final ImageDerivativeService imageDerivativeService;
+
+    @Operation(
+            summary = "Get a media file by digest",
+            description = "Streams the file stored under the given SHA-256 with Range support. Responses are immutable and carry the stored key as ETag. Images can be requested in a smaller width"
+    )
+    @GetMapping("/{digest}")
+    public ResponseEntity<?> getMedia(
+            @PathVariable String digest,
+            @Parameter(description = "Preferred image width; the nearest generated variant is served")
+            @RequestParam(required = false) Integer width,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        if (!FileStorageService.isDigest(digest)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            MediaBlob blob = mediaBlobService.getMediaBlob(digest).orElse(null);
+            if (blob == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            if (width != null) {
+                String variant = imageDerivativeService.findVariant(digest, width).orElse(null);
+                if (variant != null) {
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+                    if (new ServletWebRequest(request, response).checkNotModified("\"" + variant + "\"")) {
+                        return null;
+                    }
+                    return mediaResponder.respond(variant, variant + ".jpg", MediaType.IMAGE_JPEG, null, true, request, response);
+                }
+                // The variant may still be generated, so the original must not be cached under this URL for long
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            } else {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+            }
+            if (new ServletWebRequest(request, response).checkNotModified("\"" + digest + "\"")) {
+                return null;
+            }
+
+            MediaType contentType = blob.getContentType() != null
+                ? MediaType.parseMediaType(blob.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+            return mediaResponder.respond(digest, digest, contentType, blob.getSize(), true, request, response);
+        } catch (Exception e) {
+            log.error("Error retrieving media {}", digest, e);
+            return ResponseEntity.internalServerError()
+                .body("Error retrieving media: " + e.getMessage());
+        }
+    }
+}
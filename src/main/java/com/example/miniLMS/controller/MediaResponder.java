@@ -0,0 +1,161 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.storage.BlobStat;
+import com.example.miniLMS.storage.StorageBackend;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes stored media to the response with HTTP range support.
+ *
+ * <p>Local files are handed to the container's sendfile support for full and single-range
+ * responses when it offers one (Tomcat's NIO connector does), so the bytes go from the page
+ * cache to the socket without passing through a servlet thread. Multi-range requests for local
+ * files are served as a {@link FileSystemResource}, for which Spring MVC produces 206 and
+ * multipart/byteranges responses itself. Blobs of remote backends are streamed, fetching only
+ * the requested range; multi-range requests for them are answered with the whole blob.
+ */
+@Component
+@Slf4j
+public class MediaResponder {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final StorageBackend storageBackend;
+    private final Counter sendfileBytes;
+    private final Counter streamedBytes;
+    private final Counter resourceBytes;
+
+    public MediaResponder(StorageBackend storageBackend, MeterRegistry meterRegistry) {
+        this.storageBackend = storageBackend;
+        this.sendfileBytes = servedBytes(meterRegistry, "sendfile");
+        this.streamedBytes = servedBytes(meterRegistry, "stream");
+        this.resourceBytes = servedBytes(meterRegistry, "resource");
+    }
+
+    public ResponseEntity<?> respond(
+            String key,
+            String fileName,
+            MediaType contentType,
+            Long contentLength,
+            boolean inline,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        long length;
+        if (contentLength != null) {
+            length = contentLength;
+        } else {
+            // Only files stored before their size was recorded need a storage lookup
+            BlobStat stat = storageBackend.stat(key).orElse(null);
+            if (stat == null) {
+                log.warn("Stored file {} not found", key);
+                return ResponseEntity.notFound().build();
+            }
+            length = stat.getSize();
+        }
+        ContentDisposition disposition = (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+            .filename(fileName, StandardCharsets.UTF_8)
+            .build();
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                .build();
+        }
+
+        Path file = storageBackend.localPath(key).orElse(null);
+        if (file == null) {
+            return writeDirectly(key, null, length, contentType, disposition, ranges.size() == 1 ? ranges : List.of(), request, response);
+        }
+        if (ranges.size() <= 1 && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            return writeDirectly(key, file, length, contentType, disposition, ranges, request, response);
+        }
+
+        // Spring MVC writes the resource, possibly only the requested ranges; the whole file is counted
+        resourceBytes.increment(length);
+        return ResponseEntity.ok()
+            .contentType(contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+            .body(new FileSystemResource(file));
+    }
+
+    private ResponseEntity<?> writeDirectly(
+            String key,
+            Path file,
+            long length,
+            MediaType contentType,
+            ContentDisposition disposition,
+            List<HttpRange> ranges,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        long start = 0;
+        long end = length - 1;
+
+        if (!ranges.isEmpty()) {
+            HttpRange range = ranges.get(0);
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                    .build();
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        response.setContentLengthLong(end - start + 1);
+
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return null;
+        }
+        if (file != null) {
+            // The container streams the file after the handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            sendfileBytes.increment(end - start + 1);
+        } else {
+            try (InputStream in = ranges.isEmpty() ? storageBackend.get(key) : storageBackend.getRange(key, start, end)) {
+                streamedBytes.increment(in.transferTo(response.getOutputStream()));
+            }
+        }
+        // A null body tells Spring MVC the response has been handled
+        return null;
+    }
+
+    private static Counter servedBytes(MeterRegistry meterRegistry, String transfer) {
+        return Counter.builder("lms.media.served")
+            .description("Bytes of stored files written to responses, by transfer method")
+            .baseUnit("bytes")
+            .tag("transfer", transfer)
+            .register(meterRegistry);
+    }
+}
@@ -1,30 +1,64 @@
 package com.example.miniLMS.controller;
 
+import com.example.miniLMS.dto.EntityVersion;
+import com.example.miniLMS.dto.ModuleOutline;
+import com.example.miniLMS.dto.StoredFile;
 import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.service.FileStorageService;
 import com.example.miniLMS.service.ModuleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/modules")
 @RequiredArgsConstructor
 @CrossOrigin
+@Slf4j
 @Tag(name = "Module Management")
 public class ModuleController {
     private final ModuleService moduleService;
+    private final FileStorageService fileStorageService;
 
     @GetMapping("/{moduleId}")
     @Operation(summary = "Get module by ID")
-    public ResponseEntity<Module> getModuleById(@PathVariable("moduleId") Long moduleId) {
+    public ResponseEntity<Module> getModuleById(@PathVariable("moduleId") Long moduleId, WebRequest request) {
+        try {
+            Module module = moduleService.getModuleById(moduleId).orElse(null);
+            if (module == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            // Validators come from the snapshot that is served, which may be a cached copy,
+            // so a client never stores a body under an ETag it does not belong to
+            EntityVersion version = new EntityVersion(module.getVersion(), module.getLastModified());
+            if (request.checkNotModified("\"module-" + moduleId + "-v" + version.getVersion() + "\"",
+                    version.getLastModifiedMillis())) {
+                return null;
+            }
+            return ResponseEntity.ok(module);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{moduleId}/outline")
+    @Operation(summary = "Get module outline with lesson headers and no lesson content")
+    public ResponseEntity<ModuleOutline> getModuleOutline(@PathVariable("moduleId") Long moduleId) {
         try {
-            return moduleService.getModuleById(moduleId)
+            return moduleService.getModuleOutline(moduleId)
                     .map(ResponseEntity::ok)
                     .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
         } catch (Exception e) {
+            log.error("Error fetching module outline: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -41,4 +75,24 @@ public class ModuleController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @PostMapping(path = "/{moduleId}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload module image, served to clients as resized thumbnail and cover variants")
+    public ResponseEntity<?> uploadModuleImage(
+            @PathVariable Long moduleId,
+            @RequestParam MultipartFile file) {
+        try {
+            StoredFile image = fileStorageService.storeFile(file);
+            Module module = moduleService.setModuleImage(moduleId, image);
+            return ResponseEntity.ok(Map.of(
+                    "id", module.getId(),
+                    "thumbnailUrl", module.getThumbnailUrl(),
+                    "coverImageUrl", module.getCoverImageUrl()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error uploading module image: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
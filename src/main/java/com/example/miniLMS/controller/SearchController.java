@@ -0,0 +1,44 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.dto.SearchHit;
+import com.example.miniLMS.dto.SearchIndexStats;
+import com.example.miniLMS.service.SearchIndexService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+@RequiredArgsConstructor
+@CrossOrigin
+@Tag(name = "Search", description = "Full-text search over courses, modules and lessons")
+public class SearchController {
+    private static final int MAX_LIMIT = 50;
+
+    private final SearchIndexService searchIndexService;
+
+    @Operation(
+            summary = "Search the catalog",
+            description = "Returns the best matching courses, modules and lessons. Every word must match, "
+                + "the last one as a prefix"
+    )
+    @GetMapping
+    public ResponseEntity<List<SearchHit>> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchIndexService.search(query, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    @Operation(
+            summary = "Get search index statistics",
+            description = "Returns document, term and posting counts, the estimated memory footprint and the build time"
+    )
+    @GetMapping("/stats")
+    public ResponseEntity<SearchIndexStats> getStats() {
+        return ResponseEntity.ok(searchIndexService.getStats());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.dto.UserProgress;
+import com.example.miniLMS.service.ProgressService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/users")
+@RequiredArgsConstructor
+@CrossOrigin
+@Slf4j
+@Tag(name = "Users", description = "Progress of a learner across courses")
+public class UserController {
+    private final ProgressService progressService;
+
+    @Operation(
+            summary = "Get progress in all courses",
+            description = "Returns the progress of the user in every course they have completed a lesson of, "
+                + "optionally with the progress of each module"
+    )
+    @GetMapping("/{userId}/progress")
+    public ResponseEntity<?> getUserProgress(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "false") boolean includeModules) {
+        try {
+            UserProgress progress = progressService.getUserProgress(userId, includeModules);
+            return ResponseEntity.ok(progress);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching user progress: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
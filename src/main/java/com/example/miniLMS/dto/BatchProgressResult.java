@@ -0,0 +1,17 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchProgressResult {
+    private int received;
+    private int completed;
+    private int alreadyCompleted;
+    private List<Long> unknownLessons;
+}
@@ -0,0 +1,19 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BufferStats {
+    private boolean enabled;
+    private int depth;
+    private int capacity;
+    private long flushes;
+    private long flushedEntries;
+    private long failedFlushes;
+    private double maxFlushMillis;
+    private double averageFlushMillis;
+}
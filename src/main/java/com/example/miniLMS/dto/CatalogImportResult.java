@@ -0,0 +1,24 @@
+package com.example.miniLMS.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a catalog import. Records are committed in batches, so on failure the counts
+ * tell what was imported before the failing line.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogImportResult {
+    private long courses;
+    private long modules;
+    private long lessons;
+    private long millis;
+    // Set when the import stopped early
+    private String error;
+    private Long line;
+}
@@ -0,0 +1,25 @@
+package com.example.miniLMS.dto;
+
+import com.example.miniLMS.entity.LessonType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A lesson of the catalog export with the course and module it belongs to, read in keyset
+ * pages over all lessons in export order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogLessonRow {
+    private Long courseId;
+    private Long moduleId;
+    private Long id;
+    private String title;
+    private LessonType lessonType;
+    private String content;
+    private String fileName;
+    private String contentType;
+    private Long contentLength;
+}
@@ -0,0 +1,16 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogPage {
+    private List<CourseSummary> items;
+    // Id to pass as "after" for the next page, null on the last page
+    private Long nextCursor;
+}
@@ -0,0 +1,37 @@
+package com.example.miniLMS.dto;
+
+import com.example.miniLMS.entity.LessonType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a JSON Lines catalog import or export. A module belongs to the closest course
+ * line above it and a lesson to the closest module line above it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogRecord {
+    public static final String COURSE = "course";
+    public static final String MODULE = "module";
+    public static final String LESSON = "lesson";
+
+    // course, module or lesson
+    private String type;
+    // Written on export for reference, ignored on import
+    private Long id;
+    private String title;
+    // Course only
+    private String description;
+    // Module only
+    private String summary;
+    // Lesson only: the text of TEXT lessons, the stored file of the others
+    private LessonType lessonType;
+    private String content;
+    private String fileName;
+    private String contentType;
+    private Long contentLength;
+}
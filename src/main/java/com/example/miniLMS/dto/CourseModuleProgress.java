@@ -0,0 +1,24 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Module progress of a user together with the course of the module, read for several courses
+ * at once and grouped by course afterwards.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseModuleProgress {
+    private Long courseId;
+    private Long moduleId;
+    private String title;
+    private long totalLessons;
+    private long completedLessons;
+
+    public ModuleProgress toModuleProgress() {
+        return new ModuleProgress(moduleId, title, totalLessons, completedLessons);
+    }
+}
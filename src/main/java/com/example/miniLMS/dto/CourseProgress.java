@@ -0,0 +1,17 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseProgress {
+    private Long courseId;
+    private String userId;
+    private double progress;
+    private List<ModuleProgress> modules;
+}
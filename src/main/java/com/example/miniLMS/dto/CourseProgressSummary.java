@@ -0,0 +1,21 @@
+package com.example.miniLMS.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CourseProgressSummary {
+    private Long courseId;
+    private String title;
+    private long moduleCount;
+    private double progress;
+    // Only filled when the modules were asked for
+    private List<ModuleProgress> modules;
+}
@@ -0,0 +1,17 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSummary {
+    private Long id;
+    private String title;
+    private String description;
+    private String thumbnailUrl;
+    private long moduleCount;
+    private long lessonCount;
+}
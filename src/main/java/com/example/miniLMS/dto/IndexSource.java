@@ -0,0 +1,20 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Searchable fields of a course, module or lesson, read in keyset pages to build the search index.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexSource {
+    private Long id;
+    private String title;
+    // Description, summary or the text of a TEXT lesson created before bodies were compressed
+    private String text;
+    private Long courseId;
+    private Long moduleId;
+}
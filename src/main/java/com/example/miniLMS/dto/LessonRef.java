@@ -0,0 +1,14 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonRef {
+    private Long lessonId;
+    private Long moduleId;
+    private Long courseId;
+}
@@ -0,0 +1,19 @@
+package com.example.miniLMS.dto;
+
+import com.example.miniLMS.entity.LessonType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonStub {
+    private Long id;
+    private String title;
+    private LessonType type;
+
+    @JsonIgnore
+    private Long moduleId;
+}
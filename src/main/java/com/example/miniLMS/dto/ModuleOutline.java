@@ -0,0 +1,19 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModuleOutline {
+    private Long id;
+    private String title;
+    private String summary;
+    private String thumbnailUrl;
+    private String coverImageUrl;
+    private List<LessonStub> lessons;
+}
@@ -0,0 +1,22 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModuleProgress {
+    private Long moduleId;
+    private String title;
+    private long totalLessons;
+    private long completedLessons;
+
+    public double getProgress() {
+        if (totalLessons == 0) {
+            return 0.0;
+        }
+        return (double) completedLessons / totalLessons;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a course progress export: a user's progress on one lesson.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressExportRow {
+    private String userId;
+    private Long moduleId;
+    private String moduleTitle;
+    private Long lessonId;
+    private String lessonTitle;
+    private boolean completed;
+}
@@ -0,0 +1,18 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHit {
+    // COURSE, MODULE or LESSON
+    private String type;
+    private Long id;
+    private String title;
+    private Long courseId;
+    private Long moduleId;
+    private double score;
+}
@@ -0,0 +1,20 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchIndexStats {
+    // False until the initial build has finished; documents added since startup are searchable anyway
+    private boolean ready;
+    private long documents;
+    private long terms;
+    private long postings;
+    private long estimatedBytes;
+    private long buildMillis;
+    // Documents left out because the index reached search.max-postings
+    private long skippedDocuments;
+}
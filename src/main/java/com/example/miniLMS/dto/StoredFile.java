@@ -0,0 +1,18 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFile {
+    // Storage key; for content-addressed blobs this is the digest itself
+    private String fileName;
+    // Hex encoded SHA-256 of the content, computed while the file was written
+    private String checksum;
+    private long size;
+    // Detected from the leading bytes and the file name; null if unknown
+    private String contentType;
+}
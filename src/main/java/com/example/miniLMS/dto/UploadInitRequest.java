@@ -0,0 +1,19 @@
+package com.example.miniLMS.dto;
+
+import com.example.miniLMS.entity.LessonType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadInitRequest {
+    private Long moduleId;
+    private String title;
+    private LessonType type;
+    private String fileName;
+    private long totalSize;
+    // Optional hex encoded SHA-256 of the whole file
+    private String checksum;
+}
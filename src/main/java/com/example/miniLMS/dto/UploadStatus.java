@@ -0,0 +1,15 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadStatus {
+    private String uploadId;
+    // Number of bytes received, which is where the next chunk has to start
+    private long offset;
+    private long totalSize;
+}
@@ -0,0 +1,18 @@
+package com.example.miniLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Progress of a user in every course they have completed at least one lesson of.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProgress {
+    private String userId;
+    private List<CourseProgressSummary> courses;
+}
@@ -2,14 +2,18 @@ package com.example.miniLMS.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import java.time.Instant;
 import java.util.List;
 
 @Entity
 @Data
 public class Course {
+    // Pooled sequence ids so bulk imports can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_seq")
+    @SequenceGenerator(name = "course_seq", sequenceName = "course_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -17,7 +21,27 @@ public class Course {
     private String thumbnailUrl;
     private String coverImageUrl;
 
+    // Maintained by ProgressCounterService with bulk updates only, never written from the entity
+    @Column(updatable = false)
+    @ColumnDefault("0")
+    private long moduleCount;
+
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    // Bumped by the services whenever the structure under this entity changes
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant lastModified;
+
     @JsonManagedReference
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL)
     private List<Module> modules;
+
+    @PrePersist
+    void initLastModified() {
+        if (lastModified == null) {
+            lastModified = Instant.now();
+        }
+    }
 }
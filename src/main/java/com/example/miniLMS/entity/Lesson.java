@@ -3,12 +3,17 @@ package com.example.miniLMS.entity;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
 
 @Entity
 @Data
 public class Lesson {
+    // Pooled sequence ids so bulk imports can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lesson_seq")
+    @SequenceGenerator(name = "lesson_seq", sequenceName = "lesson_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -19,8 +24,33 @@ public class Lesson {
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    // Metadata of an uploaded file, captured when it is stored so serving it needs no storage
+    // lookups; content holds its storage key. Null for TEXT lessons and older uploads.
+    private String fileName;
+    private String contentType;
+    private Long contentLength;
+
+    // SHA-256 of the text or file content, used as the strong ETag of /lessons/{id}/content
+    @Column(length = 64)
+    private String contentHash;
+
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    // Lessons are immutable once created, so this is their creation time
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant lastModified;
+
     @JsonBackReference
     @ManyToOne
     @JoinColumn(name = "module_id")
     private Module module;
+
+    @PrePersist
+    void initLastModified() {
+        if (lastModified == null) {
+            lastModified = Instant.now();
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.miniLMS.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Body of a TEXT lesson, stored gzip compressed in its own table so lesson rows stay small and
+ * the bytes can be sent as they are to clients accepting gzip.
+ */
+@Entity
+@Data
+public class LessonBody {
+    @Id
+    private Long lessonId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lesson_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Lesson lesson;
+
+    // gzip of the UTF-8 encoded text
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] gzipContent;
+}
@@ -1,5 +1,19 @@
 package com.example.miniLMS.entity;
 
 public enum LessonType {
-    TEXT, VIDEO, IMAGE, PDF
+    TEXT("text/plain"),
+    VIDEO("video/mp4"),
+    IMAGE("image/jpeg"),
+    PDF("application/pdf");
+
+    // Used when the media type of an upload could not be detected
+    private final String defaultContentType;
+
+    LessonType(String defaultContentType) {
+        this.defaultContentType = defaultContentType;
+    }
+
+    public String getDefaultContentType() {
+        return defaultContentType;
+    }
 }
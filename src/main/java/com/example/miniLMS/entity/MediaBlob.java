@@ -0,0 +1,27 @@
+package com.example.miniLMS.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A stored file, keyed by the SHA-256 of its content. Lessons pointing at the same content
+ * share one blob, and referenceCount tracks how many of them do.
+ */
+@Entity
+@Data
+public class MediaBlob {
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    private long size;
+
+    // Sniffed from the leading bytes of the first upload
+    private String contentType;
+
+    private long referenceCount;
+
+    private Instant createdAt;
+}
@@ -3,14 +3,18 @@ package com.example.miniLMS.entity;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import java.time.Instant;
 import java.util.List;
 
 @Entity
 @Data
 public class Module {
+    // Pooled sequence ids so bulk imports can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "module_seq")
+    @SequenceGenerator(name = "module_seq", sequenceName = "module_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -18,6 +22,19 @@ public class Module {
     private String thumbnailUrl;
     private String coverImageUrl;
 
+    // Maintained by ProgressCounterService with bulk updates only, never written from the entity
+    @Column(updatable = false)
+    @ColumnDefault("0")
+    private long lessonCount;
+
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    // Bumped by the services whenever the structure under this entity changes
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant lastModified;
+
     @JsonBackReference
     @ManyToOne
     @JoinColumn(name = "course_id")
@@ -26,4 +43,11 @@ public class Module {
     @JsonManagedReference
     @OneToMany(mappedBy = "module", cascade = CascadeType.ALL)
     private List<Lesson> lessons;
+
+    @PrePersist
+    void initLastModified() {
+        if (lastModified == null) {
+            lastModified = Instant.now();
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.miniLMS.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A chunked upload in progress. The bytes received so far live in a partial file named after
+ * the session id, so the file size is the resume offset and nothing is written here per chunk.
+ */
+@Entity
+@Data
+public class UploadSession {
+    @Id
+    private String id;
+
+    private Long moduleId;
+    private String title;
+
+    @Enumerated(EnumType.STRING)
+    private LessonType type;
+
+    private String fileName;
+    private long totalSize;
+
+    // Optional SHA-256 announced by the client, verified on completion
+    @Column(length = 64)
+    private String expectedChecksum;
+
+    // Recorded once the assembled file was verified, before it is moved into the store, so a
+    // completion that failed afterwards can be retried without the partial file
+    @Column(length = 64)
+    private String checksum;
+    private String contentType;
+
+    private Instant createdAt;
+
+    // Instance holding the partial file; chunks and completion must reach it
+    private String node;
+}
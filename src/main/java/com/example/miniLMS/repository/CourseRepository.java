@@ -1,9 +1,49 @@
 package com.example.miniLMS.repository;
 
+import com.example.miniLMS.dto.CourseSummary;
+import com.example.miniLMS.dto.IndexSource;
 import com.example.miniLMS.entity.Course;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
+
+    // Marks the course as changed when the structure below it changed. A bulk update takes no
+    // optimistic lock, so concurrent additions under the same course do not fail each other
+    @Modifying
+    @Query("update Course c set c.version = c.version + 1, c.lastModified = :now where c.id = :id")
+    int touch(@Param("id") Long id, @Param("now") Instant now);
+
+    @EntityGraph(attributePaths = "modules")
+    Optional<Course> findWithModulesById(Long id);
+
+    // Keyset page of course summaries; counts come from the maintained counters, lessons are never loaded
+    @Query("select new com.example.miniLMS.dto.CourseSummary(c.id, c.title, c.description, c.thumbnailUrl, " +
+           "c.moduleCount, coalesce(sum(m.lessonCount), 0)) " +
+           "from Course c left join c.modules m " +
+           "where c.id > :afterId " +
+           "group by c.id, c.title, c.description, c.thumbnailUrl, c.moduleCount " +
+           "order by c.id")
+    List<CourseSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select new com.example.miniLMS.dto.IndexSource(c.id, c.title, c.description, c.id, null) " +
+           "from Course c where c.id > :afterId order by c.id")
+    List<IndexSource> findIndexSourcesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("update Course c set c.moduleCount = (select count(m) from Module m where m.course = c) where c.id = :courseId")
+    int refreshModuleCount(@Param("courseId") Long courseId);
+
+    @Modifying
+    @Query("update Course c set c.moduleCount = (select count(m) from Module m where m.course = c)")
+    int refreshAllModuleCounts();
 }
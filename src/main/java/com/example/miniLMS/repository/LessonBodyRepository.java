@@ -0,0 +1,9 @@
+package com.example.miniLMS.repository;
+
+import com.example.miniLMS.entity.LessonBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LessonBodyRepository extends JpaRepository<LessonBody, Long> {
+}
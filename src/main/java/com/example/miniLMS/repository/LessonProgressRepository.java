@@ -1,14 +1,46 @@
 package com.example.miniLMS.repository;
 
+import com.example.miniLMS.dto.ProgressExportRow;
 import com.example.miniLMS.entity.Lesson;
 import com.example.miniLMS.entity.LessonProgress;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LessonProgressRepository extends JpaRepository<LessonProgress, Long> {
     Optional<LessonProgress> findByUserIdAndLesson(String userId, Lesson lesson);
     List<LessonProgress> findByUserIdAndLessonIn(String userId, List<Lesson> lessons);
+
+    // Inserts the completed row in one statement and returns 1 only when the lesson was not
+    // completed before; on conflict the update is a no-op (the do update form keeps H2, which
+    // renders do nothing as a plain insert, and Postgres behaving the same)
+    @Modifying
+    @Query("insert into LessonProgress as p (userId, lesson, completed) " +
+           "values (:userId, :lesson, true) " +
+           "on conflict (p.userId, p.lesson) do update set completed = true where p.completed = false")
+    int markCompleted(@Param("userId") String userId, @Param("lesson") Lesson lesson);
+
+    /**
+     * Streams the progress rows of a course from a database cursor, fetching 1000 rows per
+     * round trip. Must be consumed inside a transaction: the Postgres driver only uses a
+     * cursor with auto-commit off, and otherwise reads the whole result into memory.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.miniLMS.dto.ProgressExportRow(p.userId, m.id, m.title, l.id, l.title, p.completed) " +
+           "from LessonProgress p join p.lesson l join l.module m " +
+           "where m.course.id = :courseId " +
+           "order by m.id, l.id, p.userId")
+    Stream<ProgressExportRow> streamCourseProgress(@Param("courseId") Long courseId);
 }
@@ -1,11 +1,51 @@
 package com.example.miniLMS.repository;
 
+import com.example.miniLMS.dto.CatalogLessonRow;
+import com.example.miniLMS.dto.IndexSource;
+import com.example.miniLMS.dto.LessonRef;
+import com.example.miniLMS.dto.LessonStub;
 import com.example.miniLMS.entity.Lesson;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
     List<Lesson> findByModuleId(Long moduleId);
+
+    @Query("select new com.example.miniLMS.dto.LessonRef(l.id, m.id, m.course.id) " +
+           "from Lesson l join l.module m where l.id in :ids")
+    List<LessonRef> findRefsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.miniLMS.dto.LessonStub(l.id, l.title, l.type, l.module.id) " +
+           "from Lesson l where l.module.course.id = :courseId order by l.id")
+    List<LessonStub> findStubsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("select new com.example.miniLMS.dto.LessonStub(l.id, l.title, l.type, l.module.id) " +
+           "from Lesson l where l.module.id = :moduleId order by l.id")
+    List<LessonStub> findStubsByModuleId(@Param("moduleId") Long moduleId);
+
+    // Only TEXT lessons have searchable text; for file lessons content is a storage key
+    @Query("select new com.example.miniLMS.dto.IndexSource(l.id, l.title, " +
+           "case when l.type = com.example.miniLMS.entity.LessonType.TEXT then l.content end, " +
+           "m.course.id, m.id) " +
+           "from Lesson l join l.module m where l.id > :afterId order by l.id")
+    List<IndexSource> findIndexSourcesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Lessons in export order, (course, module, lesson), continuing after the given lesson
+    @Query("select new com.example.miniLMS.dto.CatalogLessonRow(m.course.id, m.id, l.id, l.title, " +
+           "l.type, l.content, l.fileName, l.contentType, l.contentLength) " +
+           "from Lesson l join l.module m " +
+           "where m.course.id > :afterCourseId " +
+           "or (m.course.id = :afterCourseId and m.id > :afterModuleId) " +
+           "or (m.course.id = :afterCourseId and m.id = :afterModuleId and l.id > :afterId) " +
+           "order by m.course.id, m.id, l.id")
+    List<CatalogLessonRow> findCatalogRowsAfter(@Param("afterCourseId") Long afterCourseId,
+                                                @Param("afterModuleId") Long afterModuleId,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
 }
@@ -0,0 +1,28 @@
+package com.example.miniLMS.repository;
+
+import com.example.miniLMS.entity.MediaBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+
+    // Registers a blob with its first reference, or adds one if a concurrent upload registered it first
+    @Modifying
+    @Query("insert into MediaBlob as b (digest, size, contentType, referenceCount, createdAt) " +
+           "values (:digest, :size, :contentType, 1, :createdAt) " +
+           "on conflict (b.digest) do update set referenceCount = b.referenceCount + 1")
+    int insertOrIncrement(@Param("digest") String digest,
+                          @Param("size") long size,
+                          @Param("contentType") String contentType,
+                          @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("update MediaBlob b set b.referenceCount = b.referenceCount + 1 where b.digest = :digest")
+    int incrementReferenceCount(@Param("digest") String digest);
+}
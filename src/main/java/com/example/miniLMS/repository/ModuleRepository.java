@@ -1,11 +1,55 @@
 package com.example.miniLMS.repository;
 
+import com.example.miniLMS.dto.IndexSource;
 import com.example.miniLMS.entity.Module;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ModuleRepository extends JpaRepository<Module, Long> {
     List<Module> findByCourseId(Long courseId);
+
+    // Marks the module as changed when the structure below it changed. A bulk update takes no
+    // optimistic lock, so concurrent additions under the same module do not fail each other
+    @Modifying
+    @Query("update Module m set m.version = m.version + 1, m.lastModified = :now where m.id = :id")
+    int touch(@Param("id") Long id, @Param("now") Instant now);
+
+    List<Module> findByCourseIdOrderById(Long courseId);
+
+    @EntityGraph(attributePaths = "lessons")
+    Optional<Module> findWithLessonsById(Long id);
+
+    // Initializes the lessons of every module of a course in one query
+    @Query("select distinct m from Module m left join fetch m.lessons where m.course.id = :courseId")
+    List<Module> findWithLessonsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("select new com.example.miniLMS.dto.IndexSource(m.id, m.title, m.summary, m.course.id, m.id) " +
+           "from Module m where m.id > :afterId order by m.id")
+    List<IndexSource> findIndexSourcesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Modules in export order, (course, module), continuing after the given module
+    @Query("select new com.example.miniLMS.dto.IndexSource(m.id, m.title, m.summary, m.course.id, m.id) " +
+           "from Module m " +
+           "where m.course.id > :afterCourseId or (m.course.id = :afterCourseId and m.id > :afterId) " +
+           "order by m.course.id, m.id")
+    List<IndexSource> findCatalogSourcesAfter(@Param("afterCourseId") Long afterCourseId,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    @Modifying
+    @Query("update Module m set m.lessonCount = (select count(l) from Lesson l where l.module = m) where m.id = :moduleId")
+    int refreshLessonCount(@Param("moduleId") Long moduleId);
+
+    @Modifying
+    @Query("update Module m set m.lessonCount = (select count(l) from Lesson l where l.module = m)")
+    int refreshAllLessonCounts();
 }
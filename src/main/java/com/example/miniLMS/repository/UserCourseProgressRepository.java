@@ -0,0 +1,63 @@
+package com.example.miniLMS.repository;
+
+import com.example.miniLMS.dto.CourseProgressSummary;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.UserCourseProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserCourseProgressRepository extends JpaRepository<UserCourseProgress, Long> {
+
+    // Recomputed from the module counters rather than adjusted by deltas, so it never drifts
+    String MODULE_PROGRESS_SUM =
+        "(select coalesce(sum(cast(m.completedLessons as double) / mod.lessonCount), 0) " +
+        "from UserModuleProgress m join m.module mod " +
+        "where m.userId = c.userId and mod.course = c.course and mod.lessonCount > 0)";
+
+    @Query("select case when c.moduleCount = 0 then 0.0 " +
+           "else coalesce(p.moduleProgressSum, 0.0) / c.moduleCount end " +
+           "from Course c " +
+           "left join UserCourseProgress p on p.course = c and p.userId = :userId " +
+           "where c.id = :courseId")
+    Optional<Double> findCourseProgress(@Param("courseId") Long courseId, @Param("userId") String userId);
+
+    @Query("select new com.example.miniLMS.dto.CourseProgressSummary(c.id, c.title, c.moduleCount, " +
+           "case when c.moduleCount = 0 then 0.0 else p.moduleProgressSum / c.moduleCount end, null) " +
+           "from UserCourseProgress p join p.course c " +
+           "where p.userId = :userId " +
+           "order by c.id")
+    List<CourseProgressSummary> findCourseProgressByUserId(@Param("userId") String userId);
+
+    // Creates the counter unless it exists, also when a concurrent transaction has just created it.
+    // The no-op update rather than "do nothing" keeps H2's emulation of the upsert in tests.
+    @Modifying
+    @Query("insert into UserCourseProgress as p (userId, course, moduleProgressSum) " +
+           "values (:userId, :course, 0.0) " +
+           "on conflict (p.userId, p.course) do update set moduleProgressSum = p.moduleProgressSum")
+    int insertIfAbsent(@Param("userId") String userId, @Param("course") Course course);
+
+    @Modifying
+    @Query("update UserCourseProgress c set c.moduleProgressSum = " + MODULE_PROGRESS_SUM + " " +
+           "where c.userId = :userId and c.course.id = :courseId")
+    int refresh(@Param("userId") String userId, @Param("courseId") Long courseId);
+
+    @Modifying
+    @Query("update UserCourseProgress c set c.moduleProgressSum = " + MODULE_PROGRESS_SUM + " " +
+           "where c.course.id = :courseId and exists (" +
+           "select 1 from UserModuleProgress m where m.userId = c.userId and m.module.id = :moduleId)")
+    int refreshForModule(@Param("courseId") Long courseId, @Param("moduleId") Long moduleId);
+
+    @Modifying
+    @Query("insert into UserCourseProgress (userId, course, moduleProgressSum) " +
+           "select p.userId, m.course, sum(cast(p.completedLessons as double) / m.lessonCount) " +
+           "from UserModuleProgress p join p.module m " +
+           "where m.lessonCount > 0 " +
+           "group by p.userId, m.course")
+    int rebuildAll();
+}
@@ -0,0 +1,55 @@
+package com.example.miniLMS.repository;
+
+import com.example.miniLMS.dto.CourseModuleProgress;
+import com.example.miniLMS.dto.ModuleProgress;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.entity.UserModuleProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserModuleProgressRepository extends JpaRepository<UserModuleProgress, Long> {
+
+    @Query("select new com.example.miniLMS.dto.ModuleProgress(m.id, m.title, m.lessonCount, coalesce(p.completedLessons, 0)) " +
+           "from Module m " +
+           "left join UserModuleProgress p on p.module = m and p.userId = :userId " +
+           "where m.id = :moduleId")
+    Optional<ModuleProgress> findModuleProgress(@Param("moduleId") Long moduleId, @Param("userId") String userId);
+
+    @Query("select new com.example.miniLMS.dto.ModuleProgress(m.id, m.title, m.lessonCount, coalesce(p.completedLessons, 0)) " +
+           "from Module m " +
+           "left join UserModuleProgress p on p.module = m and p.userId = :userId " +
+           "where m.course.id = :courseId " +
+           "order by m.id")
+    List<ModuleProgress> findModuleProgressByCourseId(@Param("courseId") Long courseId, @Param("userId") String userId);
+
+    // Every module of the courses the user has a course counter for, including untouched ones
+    @Query("select new com.example.miniLMS.dto.CourseModuleProgress(m.course.id, m.id, m.title, m.lessonCount, " +
+           "coalesce(p.completedLessons, 0)) " +
+           "from Module m " +
+           "left join UserModuleProgress p on p.module = m and p.userId = :userId " +
+           "where m.course.id in (select c.course.id from UserCourseProgress c where c.userId = :userId) " +
+           "order by m.course.id, m.id")
+    List<CourseModuleProgress> findModuleProgressByUserId(@Param("userId") String userId);
+
+    // Creates the counter or adds to it in one statement, so concurrent first completions cannot collide
+    @Modifying
+    @Query("insert into UserModuleProgress as p (userId, module, completedLessons) " +
+           "values (:userId, :module, :completed) " +
+           "on conflict (p.userId, p.module) do update set completedLessons = p.completedLessons + excluded.completedLessons")
+    int addCompletedLessons(@Param("userId") String userId, @Param("module") Module module,
+                            @Param("completed") long completed);
+
+    @Modifying
+    @Query("insert into UserModuleProgress (userId, module, completedLessons) " +
+           "select lp.userId, l.module, count(distinct l.id) " +
+           "from LessonProgress lp join lp.lesson l " +
+           "where lp.completed = true " +
+           "group by lp.userId, l.module")
+    int rebuildAll();
+}
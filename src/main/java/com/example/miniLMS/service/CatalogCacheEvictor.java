@@ -0,0 +1,49 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evicts catalog cache entries affected by a write. Entries are evicted right away and again
+ * after the surrounding transaction commits, so a concurrent read cannot put the pre-commit
+ * state back into the cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheEvictor {
+    private final CacheManager cacheManager;
+
+    public void evictCourse(Long courseId) {
+        evict(courseId, CacheConfig.COURSES, CacheConfig.COURSE_OUTLINES);
+    }
+
+    public void evictModule(Long moduleId) {
+        evict(moduleId, CacheConfig.MODULES, CacheConfig.MODULE_OUTLINES);
+    }
+
+    private void evict(Long id, String... cacheNames) {
+        Runnable eviction = () -> {
+            for (String cacheName : cacheNames) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    cache.evict(id);
+                }
+            }
+        };
+
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.CatalogImportResult;
+import com.example.miniLMS.dto.CatalogLessonRow;
+import com.example.miniLMS.dto.CatalogRecord;
+import com.example.miniLMS.dto.IndexSource;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonBody;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.repository.LessonBodyRepository;
+import com.example.miniLMS.repository.LessonRepository;
+import com.example.miniLMS.repository.ModuleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import and export of the catalog as JSON Lines: a course line, then its modules, each
+ * followed by its lessons.
+ *
+ * <p>Both directions stream. The import parses one line at a time and persists every
+ * {@code catalog.import.batch-size} lines in their own transaction, clearing the persistence
+ * context afterwards; sequence ids let Hibernate send the inserts in JDBC batches. The export
+ * reads courses, modules and lessons in keyset pages. Memory use depends on the batch and
+ * page sizes only, not on the size of the catalog.
+ */
+@Service
+@Timed("lms.service")
+@Slf4j
+public class CatalogTransferService {
+    private final CourseRepository courseRepository;
+    private final ModuleRepository moduleRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonBodyRepository lessonBodyRepository;
+    private final LessonService lessonService;
+    private final SearchIndexService searchIndexService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final int batchSize;
+    private final int pageSize;
+
+    public CatalogTransferService(
+            CourseRepository courseRepository,
+            ModuleRepository moduleRepository,
+            LessonRepository lessonRepository,
+            LessonBodyRepository lessonBodyRepository,
+            LessonService lessonService,
+            SearchIndexService searchIndexService,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${catalog.import.batch-size:1000}") int batchSize,
+            @Value("${catalog.export.page-size:500}") int pageSize) {
+        this.courseRepository = courseRepository;
+        this.moduleRepository = moduleRepository;
+        this.lessonRepository = lessonRepository;
+        this.lessonBodyRepository = lessonBodyRepository;
+        this.lessonService = lessonService;
+        this.searchIndexService = searchIndexService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reader = objectMapper.readerFor(CatalogRecord.class);
+        this.writer = objectMapper.writerFor(CatalogRecord.class);
+        this.batchSize = batchSize;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Imports catalog lines until the end of the stream or the first invalid line. Batches
+     * committed before an invalid line stay imported; the result tells how far it got.
+     */
+    public CatalogImportResult importCatalog(InputStream in) throws IOException {
+        long started = System.currentTimeMillis();
+        ImportState state = new ImportState();
+        List<ParsedRecord> batch = new ArrayList<>(batchSize);
+        long line = 0;
+        try (MappingIterator<CatalogRecord> records = reader.readValues(in)) {
+            while (records.hasNextValue()) {
+                CatalogRecord record = records.nextValue();
+                line = records.getCurrentLocation().getLineNr();
+                validate(record, state);
+                batch.add(new ParsedRecord(record, line));
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, state);
+                    batch.clear();
+                }
+            }
+            writeBatch(batch, state);
+        } catch (JsonProcessingException e) {
+            Long errorLine = e.getLocation() != null ? (long) e.getLocation().getLineNr() : null;
+            return state.result(started, "Invalid JSON: " + e.getOriginalMessage(), errorLine);
+        } catch (IllegalArgumentException e) {
+            return state.result(started, e.getMessage(), line);
+        } catch (ImportFailedException e) {
+            return state.result(started, e.getMessage(), e.line);
+        }
+
+        CatalogImportResult result = state.result(started, null, null);
+        log.info("Imported {} courses, {} modules and {} lessons in {} ms",
+            result.getCourses(), result.getModules(), result.getLessons(), result.getMillis());
+        return result;
+    }
+
+    /**
+     * Writes the whole catalog to {@code out}, one record per line.
+     */
+    public void exportCatalog(OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        // Modules and lessons are read in the order they are written, so each cursor only
+        // moves forward and the export takes one query per page whatever the catalog shape
+        PageCursor<IndexSource> courses = new PageCursor<>(pageSize, last ->
+            courseRepository.findIndexSourcesAfter(last == null ? 0L : last.getId(), PageRequest.of(0, pageSize)));
+        PageCursor<IndexSource> modules = new PageCursor<>(pageSize, last -> last == null
+            ? moduleRepository.findCatalogSourcesAfter(0L, 0L, PageRequest.of(0, pageSize))
+            : moduleRepository.findCatalogSourcesAfter(last.getCourseId(), last.getId(), PageRequest.of(0, pageSize)));
+        PageCursor<CatalogLessonRow> lessons = new PageCursor<>(pageSize, this::nextLessonPage);
+
+        for (IndexSource course = courses.next(); course != null; course = courses.next()) {
+            write(buffered, new CatalogRecord(CatalogRecord.COURSE, course.getId(), course.getTitle(),
+                course.getText(), null, null, null, null, null, null));
+            while (modules.peek() != null && modules.peek().getCourseId().equals(course.getId())) {
+                IndexSource module = modules.next();
+                write(buffered, new CatalogRecord(CatalogRecord.MODULE, module.getId(), module.getTitle(),
+                    null, module.getText(), null, null, null, null, null));
+                while (lessons.peek() != null && lessons.peek().getModuleId().equals(module.getId())) {
+                    CatalogLessonRow lesson = lessons.next();
+                    write(buffered, new CatalogRecord(CatalogRecord.LESSON, lesson.getId(), lesson.getTitle(),
+                        null, null, lesson.getLessonType(), lesson.getContent(), lesson.getFileName(),
+                        lesson.getContentType(), lesson.getContentLength()));
+                }
+            }
+        }
+        buffered.flush();
+    }
+
+    private List<CatalogLessonRow> nextLessonPage(CatalogLessonRow last) {
+        List<CatalogLessonRow> lessons = last == null
+            ? lessonRepository.findCatalogRowsAfter(0L, 0L, 0L, PageRequest.of(0, pageSize))
+            : lessonRepository.findCatalogRowsAfter(last.getCourseId(), last.getModuleId(), last.getId(),
+                PageRequest.of(0, pageSize));
+        // TEXT bodies live compressed in lesson_body; lessons from before that keep them inline
+        List<Long> textLessons = lessons.stream()
+            .filter(lesson -> lesson.getLessonType() == LessonType.TEXT && lesson.getContent() == null)
+            .map(CatalogLessonRow::getId)
+            .toList();
+        Map<Long, byte[]> bodies = textLessons.isEmpty() ? Map.of() : lessonBodyRepository.findAllById(textLessons).stream()
+            .collect(Collectors.toMap(LessonBody::getLessonId, LessonBody::getGzipContent));
+        for (CatalogLessonRow lesson : lessons) {
+            byte[] body = bodies.get(lesson.getId());
+            if (body != null) {
+                lesson.setContent(TextCompression.gunzip(body));
+            }
+            if (lesson.getLessonType() == LessonType.TEXT) {
+                // Derived again from the text on import
+                lesson.setContentType(null);
+                lesson.setContentLength(null);
+            }
+        }
+        return lessons;
+    }
+
+    private void write(OutputStream out, CatalogRecord record) throws IOException {
+        out.write(writer.writeValueAsBytes(record));
+        out.write('\n');
+    }
+
+    private void validate(CatalogRecord record, ImportState state) {
+        if (record.getTitle() == null || record.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Title cannot be empty");
+        }
+        switch (String.valueOf(record.getType())) {
+            case CatalogRecord.COURSE -> {
+                state.parsedCourse = true;
+                state.parsedModule = false;
+            }
+            case CatalogRecord.MODULE -> {
+                if (!state.parsedCourse) {
+                    throw new IllegalArgumentException("Module before the first course");
+                }
+                state.parsedModule = true;
+            }
+            case CatalogRecord.LESSON -> {
+                if (!state.parsedModule) {
+                    throw new IllegalArgumentException("Lesson before the first module of its course");
+                }
+                Lesson lesson = new Lesson();
+                lesson.setType(record.getLessonType());
+                lesson.setContent(record.getContent());
+                lessonService.validateLessonContent(lesson);
+            }
+            default -> throw new IllegalArgumentException("Unknown type " + record.getType()
+                + ", expected course, module or lesson");
+        }
+    }
+
+    private void writeBatch(List<ParsedRecord> batch, ImportState state) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ImportState committed = state.copy();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> touchedCourses = new LinkedHashSet<>();
+                Set<Long> touchedModules = new LinkedHashSet<>();
+                for (ParsedRecord parsed : batch) {
+                    state.currentLine = parsed.line();
+                    persist(parsed.record(), state);
+                    touchedCourses.add(state.courseId);
+                    if (state.moduleId != null) {
+                        touchedModules.add(state.moduleId);
+                    }
+                }
+                entityManager.flush();
+                touchedModules.forEach(moduleRepository::refreshLessonCount);
+                touchedCourses.forEach(courseRepository::refreshModuleCount);
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Catalog import failed at line {}", state.currentLine, e);
+            long line = state.currentLine;
+            state.restore(committed);
+            throw new ImportFailedException(e.getMessage(), line);
+        }
+    }
+
+    private void persist(CatalogRecord record, ImportState state) {
+        switch (record.getType()) {
+            case CatalogRecord.COURSE -> {
+                Course course = new Course();
+                course.setTitle(record.getTitle());
+                course.setDescription(record.getDescription());
+                entityManager.persist(course);
+                state.courseId = course.getId();
+                state.moduleId = null;
+                state.courses++;
+                searchIndexService.indexCourse(course.getId(), course.getTitle(), course.getDescription());
+            }
+            case CatalogRecord.MODULE -> {
+                Module module = new Module();
+                module.setTitle(record.getTitle());
+                module.setSummary(record.getSummary());
+                module.setCourse(entityManager.getReference(Course.class, state.courseId));
+                entityManager.persist(module);
+                state.moduleId = module.getId();
+                state.modules++;
+                searchIndexService.indexModule(module.getId(), module.getTitle(), module.getSummary(), state.courseId);
+            }
+            default -> {
+                Lesson lesson = new Lesson();
+                lesson.setTitle(record.getTitle());
+                lesson.setType(record.getLessonType());
+                lesson.setContent(record.getContent());
+                lesson.setModule(entityManager.getReference(Module.class, state.moduleId));
+                String text = null;
+                byte[] compressedText = null;
+                if (lesson.getType() == LessonType.TEXT) {
+                    text = lesson.getContent();
+                    compressedText = LessonService.compressText(lesson);
+                } else {
+                    lesson.setFileName(record.getFileName());
+                    lesson.setContentLength(record.getContentLength());
+                    lesson.setContentType(record.getContentType() != null
+                        ? record.getContentType()
+                        : lesson.getType().getDefaultContentType());
+                    if (FileStorageService.isDigest(lesson.getContent())) {
+                        lessonService.retainBlob(lesson);
+                    }
+                }
+                entityManager.persist(lesson);
+                if (compressedText != null) {
+                    LessonBody body = new LessonBody();
+                    body.setLesson(lesson);
+                    body.setGzipContent(compressedText);
+                    entityManager.persist(body);
+                }
+                state.lessons++;
+                searchIndexService.indexLesson(lesson.getId(), lesson.getTitle(), text, state.courseId, state.moduleId);
+            }
+        }
+    }
+
+    private record ParsedRecord(CatalogRecord record, long line) {
+    }
+
+    private static final class ImportState {
+        // Parse-time structure checks
+        private boolean parsedCourse;
+        private boolean parsedModule;
+        // Parents of the next persisted records
+        private Long courseId;
+        private Long moduleId;
+        private long currentLine;
+        private long courses;
+        private long modules;
+        private long lessons;
+
+        private ImportState copy() {
+            ImportState copy = new ImportState();
+            copy.restore(this);
+            return copy;
+        }
+
+        private void restore(ImportState other) {
+            parsedCourse = other.parsedCourse;
+            parsedModule = other.parsedModule;
+            courseId = other.courseId;
+            moduleId = other.moduleId;
+            currentLine = other.currentLine;
+            courses = other.courses;
+            modules = other.modules;
+            lessons = other.lessons;
+        }
+
+        private CatalogImportResult result(long started, String error, Long line) {
+            return new CatalogImportResult(courses, modules, lessons, System.currentTimeMillis() - started, error, line);
+        }
+    }
+
+    private static final class ImportFailedException extends RuntimeException {
+        private final long line;
+
+        private ImportFailedException(String message, long line) {
+            super(message);
+            this.line = line;
+        }
+    }
+
+    /**
+     * Hands out the rows of a keyset-paged query one at a time, fetching the page after the
+     * last row once the current one is used up.
+     */
+    private static final class PageCursor<T> {
+        private final int pageSize;
+        private final Function<T, List<T>> nextPage;
+        private List<T> page = List.of();
+        private int position;
+        private boolean exhausted;
+
+        PageCursor(int pageSize, Function<T, List<T>> nextPage) {
+            this.pageSize = pageSize;
+            this.nextPage = nextPage;
+        }
+
+        T peek() {
+            if (position == page.size() && !exhausted) {
+                page = nextPage.apply(page.isEmpty() ? null : page.get(page.size() - 1));
+                position = 0;
+                exhausted = page.size() < pageSize;
+            }
+            return position < page.size() ? page.get(position) : null;
+        }
+
+        T next() {
+            T row = peek();
+            if (row != null) {
+                position++;
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.StoredFile;
+import com.example.miniLMS.dto.UploadInitRequest;
+import com.example.miniLMS.dto.UploadStatus;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.UploadSession;
+import com.example.miniLMS.repository.ModuleRepository;
+import com.example.miniLMS.repository.UploadSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads in three steps: init, append chunks in order, complete. Chunks are
+ * appended straight to a partial file inside the store with a fixed-size buffer, and the
+ * completed file is renamed into place under its digest, so memory and disk use do not grow
+ * with file size.
+ *
+ * <p>Partial files live on the local disk of the instance that started the session, whatever
+ * the storage backend. The session records that instance and requests reaching any other are
+ * refused with {@link MisdirectedUploadException}, so the bytes are never split across nodes.
+ */
+@Service
+@Timed("lms.service")
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedUploadService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final ModuleRepository moduleRepository;
+    private final FileStorageService fileStorageService;
+    private final LessonService lessonService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${upload.max-size-bytes:10737418240}")
+    private long maxSize;
+
+    @Value("${upload.session-ttl:PT24H}")
+    private Duration sessionTtl;
+
+    // Instances sharing one upload directory may share the id; defaults to the host name
+    @Value("${upload.node-id:}")
+    private String nodeId;
+
+    // Running checksum of the bytes up to its offset; rebuilt from the partial file when the
+    // file has grown elsewhere or a write failed halfway
+    private final ConcurrentHashMap<String, RunningDigest> digests = new ConcurrentHashMap<>();
+    // Uploads with a chunk or completion in progress; entries live only as long as the request
+    private final Set<String> busy = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void resolveNodeId() {
+        if (!StringUtils.hasText(nodeId)) {
+            try {
+                nodeId = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                nodeId = "local";
+            }
+        }
+        log.info("Staging resumable uploads as instance {}", nodeId);
+    }
+
+    public UploadStatus init(UploadInitRequest request) {
+        if (request.getTitle() == null || request.getTitle().trim().isEmpty()) {
+            throw new IllegalArgumentException("Lesson title cannot be empty");
+        }
+        if (request.getType() == null || request.getType() == LessonType.TEXT) {
+            throw new IllegalArgumentException("Chunked uploads are only supported for file lessons");
+        }
+        if (request.getFileName() == null || request.getFileName().isBlank()
+                || StringUtils.cleanPath(request.getFileName()).contains("..")) {
+            throw new IllegalArgumentException("Invalid file name: " + request.getFileName());
+        }
+        if (request.getTotalSize() <= 0 || request.getTotalSize() > maxSize) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxSize + " bytes");
+        }
+        if (request.getChecksum() != null && !request.getChecksum().matches("[0-9a-fA-F]{64}")) {
+            throw new IllegalArgumentException("Checksum must be a hex encoded SHA-256");
+        }
+        if (request.getModuleId() == null || !moduleRepository.existsById(request.getModuleId())) {
+            throw new NoSuchElementException("Module not found");
+        }
+
+        purgeExpiredSessions();
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setModuleId(request.getModuleId());
+        session.setTitle(request.getTitle());
+        session.setType(request.getType());
+        session.setFileName(StringUtils.cleanPath(request.getFileName()));
+        session.setTotalSize(request.getTotalSize());
+        session.setExpectedChecksum(request.getChecksum() == null ? null : request.getChecksum().toLowerCase());
+        session.setCreatedAt(Instant.now());
+        session.setNode(nodeId);
+
+        try {
+            Files.createFile(fileStorageService.getPartialUploadPath(session.getId()));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start upload: " + e.getMessage(), e);
+        }
+        uploadSessionRepository.save(session);
+        log.info("Started chunked upload {} of {} ({} bytes)", session.getId(), session.getFileName(), session.getTotalSize());
+        return new UploadStatus(session.getId(), 0, session.getTotalSize());
+    }
+
+    public UploadStatus getStatus(String uploadId) {
+        UploadSession session = findSession(uploadId);
+        // A verified upload may already have been moved into the store
+        long received = session.getChecksum() != null ? session.getTotalSize() : receivedBytes(uploadId);
+        return new UploadStatus(uploadId, received, session.getTotalSize());
+    }
+
+    /**
+     * Appends a chunk that must start exactly at the number of bytes received so far. After a
+     * dropped connection the client asks for the status and continues from that offset.
+     */
+    public UploadStatus appendChunk(String uploadId, long offset, InputStream body) {
+        UploadSession session = findSession(uploadId);
+        acquire(uploadId);
+        try {
+            long received = receivedBytes(uploadId);
+            if (offset != received) {
+                throw new IllegalStateException("Chunk offset " + offset + " does not match the " + received + " bytes received");
+            }
+
+            Path partialFile = fileStorageService.getPartialUploadPath(uploadId);
+            // Only put back once the whole chunk was hashed and written
+            RunningDigest running = digests.remove(uploadId);
+            long remaining = session.getTotalSize() - received;
+            try {
+                MessageDigest digest = running != null && running.offset() == received
+                    ? running.digest()
+                    : digestOf(partialFile);
+                long written;
+                try (InputStream in = new DigestInputStream(body, digest);
+                     FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    written = append(in, channel, remaining);
+                }
+                digests.put(uploadId, new RunningDigest(digest, received + written, session.getCreatedAt()));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write chunk: " + e.getMessage(), e);
+            }
+            return new UploadStatus(uploadId, receivedBytes(uploadId), session.getTotalSize());
+        } finally {
+            busy.remove(uploadId);
+        }
+    }
+
+    /**
+     * Verifies the upload, moves it into the store and creates the lesson. Safe to retry: once
+     * the checksum is recorded on the session, a retry continues from the stored file.
+     */
+    public Lesson complete(String uploadId) {
+        UploadSession session = findSession(uploadId);
+        acquire(uploadId);
+        try {
+            Path partialFile = fileStorageService.getPartialUploadPath(uploadId);
+            if (session.getChecksum() == null) {
+                long received = receivedBytes(uploadId);
+                if (received != session.getTotalSize()) {
+                    throw new IllegalStateException("Upload incomplete: " + received + " of " + session.getTotalSize() + " bytes received");
+                }
+
+                RunningDigest running = digests.remove(uploadId);
+                String checksum = running != null && running.offset() == received
+                    ? HexFormat.of().formatHex(running.digest().digest())
+                    : FileStorageService.sha256Hex(partialFile);
+                if (session.getExpectedChecksum() != null && !session.getExpectedChecksum().equals(checksum)) {
+                    discard(session);
+                    throw new IllegalArgumentException("Checksum mismatch, upload discarded");
+                }
+                session.setChecksum(checksum);
+                session.setContentType(ContentTypeDetector.detect(partialFile, session.getFileName(), null));
+                session = uploadSessionRepository.save(session);
+            }
+
+            String checksum = session.getChecksum();
+            String contentType = session.getContentType();
+            StoredFile storedFile = Files.exists(partialFile)
+                ? fileStorageService.storePartialUpload(partialFile, checksum, contentType)
+                : fileStorageService.stat(checksum)
+                    .map(stat -> new StoredFile(checksum, checksum, stat.getSize(), contentType))
+                    .orElseThrow(() -> new IllegalStateException("Stored file of upload " + uploadId + " is missing"));
+            Lesson lesson = new Lesson();
+            lesson.setTitle(session.getTitle());
+            lesson.setType(session.getType());
+            lesson.setContent(storedFile.getFileName());
+            lesson.setFileName(session.getFileName());
+            lesson.setContentHash(storedFile.getChecksum());
+            lesson.setContentType(storedFile.getContentType());
+            lesson.setContentLength(storedFile.getSize());
+
+            // The lesson and the end of the session commit together, so a retry never creates a second lesson
+            UploadSession completed = session;
+            Lesson savedLesson = transactionTemplate.execute(status -> {
+                Lesson saved = lessonService.createLesson(completed.getModuleId(), lesson);
+                uploadSessionRepository.delete(completed);
+                return saved;
+            });
+            log.info("Completed chunked upload {} as lesson {}", uploadId, savedLesson.getId());
+            return savedLesson;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to complete upload: " + e.getMessage(), e);
+        } finally {
+            busy.remove(uploadId);
+        }
+    }
+
+    public void abort(String uploadId) {
+        discard(findSession(uploadId));
+    }
+
+    private void acquire(String uploadId) {
+        if (!busy.add(uploadId)) {
+            throw new IllegalStateException("Another chunk of upload " + uploadId + " is being written");
+        }
+    }
+
+    private static long append(InputStream in, FileChannel channel, long remaining) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long written = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (written + read > remaining) {
+                throw new IllegalArgumentException("Chunk exceeds the declared file size");
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+            written += read;
+        }
+        return written;
+    }
+
+    private static MessageDigest digestOf(Path file) throws IOException {
+        MessageDigest digest = FileStorageService.newDigest();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest;
+    }
+
+    private UploadSession findSession(String uploadId) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+            .orElseThrow(() -> new NoSuchElementException("Upload not found"));
+        if (!isLocal(session)) {
+            throw new MisdirectedUploadException(uploadId, session.getNode());
+        }
+        return session;
+    }
+
+    // Sessions started before instances were recorded are served anywhere
+    private boolean isLocal(UploadSession session) {
+        return session.getNode() == null || session.getNode().equals(nodeId);
+    }
+
+    private long receivedBytes(String uploadId) {
+        try {
+            return Files.size(fileStorageService.getPartialUploadPath(uploadId));
+        } catch (IOException e) {
+            throw new RuntimeException("Partial upload missing for " + uploadId, e);
+        }
+    }
+
+    private void discard(UploadSession session) {
+        digests.remove(session.getId());
+        try {
+            Files.deleteIfExists(fileStorageService.getPartialUploadPath(session.getId()));
+        } catch (IOException e) {
+            log.warn("Could not delete partial upload {}", session.getId(), e);
+        }
+        uploadSessionRepository.delete(session);
+    }
+
+    private void purgeExpiredSessions() {
+        Instant cutoff = Instant.now().minus(sessionTtl);
+        for (UploadSession expired : uploadSessionRepository.findByCreatedAtBefore(cutoff)) {
+            // The partial file of another instance's session is only reachable there
+            if (!isLocal(expired)) {
+                continue;
+            }
+            log.info("Discarding expired upload {}", expired.getId());
+            discard(expired);
+        }
+        // Sessions abandoned here but purged by another instance
+        digests.values().removeIf(running -> running.sessionCreatedAt().isBefore(cutoff));
+    }
+
+    private record RunningDigest(MessageDigest digest, long offset, Instant sessionCreatedAt) {
+    }
+}
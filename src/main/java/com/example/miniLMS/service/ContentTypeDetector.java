@@ -0,0 +1,96 @@
+package com.example.miniLMS.service;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Determines the media type of an upload once, when it is stored. The leading bytes of the
+ * file win over its name, which wins over the type the client declared.
+ */
+final class ContentTypeDetector {
+    private static final int HEADER_LENGTH = 12;
+
+    private ContentTypeDetector() {
+    }
+
+    static String detect(Path file, String fileName, String declaredType) throws IOException {
+        byte[] header;
+        try (InputStream in = Files.newInputStream(file)) {
+            header = in.readNBytes(HEADER_LENGTH);
+        }
+        String sniffed = sniff(header);
+        if (sniffed != null) {
+            return sniffed;
+        }
+        if (fileName != null) {
+            String byName = MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(null);
+            if (byName != null) {
+                return byName;
+            }
+        }
+        if (declaredType != null) {
+            try {
+                MediaType declared = MediaType.parseMediaType(declaredType);
+                if (declared.isConcrete() && !MediaType.APPLICATION_OCTET_STREAM.equalsTypeAndSubtype(declared)) {
+                    return declared.toString();
+                }
+            } catch (InvalidMediaTypeException e) {
+                // Ignore what the client sent and fall back to the lesson type
+            }
+        }
+        return null;
+    }
+
+    private static String sniff(byte[] header) {
+        if (startsWith(header, 0, "%PDF-")) {
+            return MediaType.APPLICATION_PDF_VALUE;
+        }
+        if (startsWith(header, 0, (byte) 0x89, 'P', 'N', 'G')) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (startsWith(header, 0, (byte) 0xFF, (byte) 0xD8, (byte) 0xFF)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (startsWith(header, 0, "GIF8")) {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        if (startsWith(header, 0, "RIFF") && startsWith(header, 8, "WEBP")) {
+            return "image/webp";
+        }
+        if (startsWith(header, 4, "ftypqt")) {
+            return "video/quicktime";
+        }
+        if (startsWith(header, 4, "ftyp")) {
+            return "video/mp4";
+        }
+        if (startsWith(header, 0, (byte) 0x1A, (byte) 0x45, (byte) 0xDF, (byte) 0xA3)) {
+            return "video/webm";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int offset, String prefix) {
+        return startsWith(header, offset, prefix.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... prefix) {
+        byte[] bytes = new byte[prefix.length];
+        for (int i = 0; i < prefix.length; i++) {
+            bytes[i] = (byte) prefix[i];
+        }
+        return startsWith(header, offset, bytes);
+    }
+
+    private static boolean startsWith(byte[] header, int offset, byte[] prefix) {
+        return header.length >= offset + prefix.length
+            && Arrays.equals(header, offset, offset + prefix.length, prefix, 0, prefix.length);
+    }
+}
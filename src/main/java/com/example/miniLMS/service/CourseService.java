@@ -1,22 +1,46 @@
 package com.example.miniLMS.service;
 
+import com.example.miniLMS.config.CacheConfig;
+import com.example.miniLMS.dto.CatalogPage;
+import com.example.miniLMS.dto.CourseOutline;
+import com.example.miniLMS.dto.CourseProgress;
+import com.example.miniLMS.dto.CourseSummary;
+import com.example.miniLMS.dto.LessonStub;
+import com.example.miniLMS.dto.ModuleOutline;
+import com.example.miniLMS.dto.StoredFile;
 import com.example.miniLMS.entity.Course;
 import com.example.miniLMS.entity.Module;
 import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.repository.LessonRepository;
 import com.example.miniLMS.repository.ModuleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import java.time.Instant;
 import java.util.*;
+import java.util.stream.Collectors;
 import jakarta.transaction.Transactional;
 
 @Service
+@Timed("lms.service")
 @RequiredArgsConstructor
 @Slf4j
 public class CourseService {
     private final CourseRepository courseRepository;
     private final ModuleRepository moduleRepository;
-    private final ModuleService moduleService;
+    private final LessonRepository lessonRepository;
+    private final ProgressService progressService;
+    private final ProgressCounterService progressCounterService;
+    private final CatalogCacheEvictor catalogCacheEvictor;
+    private final MediaBlobService mediaBlobService;
+    private final SearchIndexService searchIndexService;
+
+    @Value("${catalog.page.max-size:100}")
+    private int maxCatalogPageSize;
 
     public Course createCourse(Course course) {
         log.info("Creating course with title: {}", course.getTitle());
@@ -31,6 +55,7 @@ public class CourseService {
 
             Course savedCourse = courseRepository.save(course);
             log.info("Successfully created course with id: {}", savedCourse.getId());
+            searchIndexService.indexCourse(savedCourse.getId(), savedCourse.getTitle(), savedCourse.getDescription());
             return savedCourse;
         } catch (Exception e) {
             log.error("Error creating course: {}", e.getMessage());
@@ -42,22 +67,63 @@ public class CourseService {
         return courseRepository.findAll();
     }
 
+    public CatalogPage getCatalogPage(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxCatalogPageSize));
+        List<CourseSummary> items = courseRepository.findSummariesAfter(
+            afterId == null ? 0L : afterId, PageRequest.of(0, pageSize));
+        Long nextCursor = items.size() == pageSize ? items.get(items.size() - 1).getId() : null;
+        return new CatalogPage(items, nextCursor);
+    }
+
+    /**
+     * Loads a course with its modules and their lessons in two queries, so serializing the
+     * returned graph triggers no lazy loading.
+     */
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.COURSES, unless = "#result == null")
     public Optional<Course> getCourseById(Long id) {
-        return courseRepository.findById(id);
+        Optional<Course> course = courseRepository.findWithModulesById(id);
+        course.ifPresent(found -> moduleRepository.findWithLessonsByCourseId(id));
+        return course;
     }
 
-    public double calculateCourseProgress(Long courseId, String userId) {
-        Course course = courseRepository.findById(courseId)
-            .orElseThrow(() -> new RuntimeException("Course not found"));
+    /**
+     * Returns the course structure with lesson headers only, in three queries regardless of
+     * the number of modules. Lesson content is served by /lessons/{id}/content.
+     */
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.COURSE_OUTLINES, unless = "#result == null")
+    public Optional<CourseOutline> getCourseOutline(Long id) {
+        return courseRepository.findById(id).map(course -> {
+            Map<Long, List<LessonStub>> lessonsByModule = lessonRepository.findStubsByCourseId(id).stream()
+                .collect(Collectors.groupingBy(LessonStub::getModuleId));
 
-        if (course.getModules() == null || course.getModules().isEmpty()) {
-            return 0.0;
-        }
+            List<ModuleOutline> modules = moduleRepository.findByCourseIdOrderById(id).stream()
+                .map(module -> new ModuleOutline(
+                    module.getId(),
+                    module.getTitle(),
+                    module.getSummary(),
+                    module.getThumbnailUrl(),
+                    module.getCoverImageUrl(),
+                    lessonsByModule.getOrDefault(module.getId(), List.of())))
+                .toList();
+
+            return new CourseOutline(
+                course.getId(),
+                course.getTitle(),
+                course.getDescription(),
+                course.getThumbnailUrl(),
+                course.getCoverImageUrl(),
+                modules);
+        });
+    }
 
-        return course.getModules().stream()
-            .mapToDouble(module -> moduleService.calculateModuleProgress(module.getId(), userId))
-            .average()
-            .orElse(0.0);
+    public double calculateCourseProgress(Long courseId, String userId) {
+        return progressService.calculateCourseProgress(courseId, userId);
+    }
+
+    public CourseProgress getCourseProgressDetails(Long courseId, String userId) {
+        return progressService.getCourseProgress(courseId, userId);
     }
 
     @Transactional
@@ -69,9 +135,30 @@ public class CourseService {
             module.setLessons(new ArrayList<>());
         }
 
+        // Persist the module itself; saving the managed course or adding to its modules would
+        // update the course row and fail concurrent additions with an optimistic lock conflict
         module.setCourse(course);
-        course.getModules().add(module);
-        courseRepository.save(course);
-        return moduleRepository.save(module);
+        Module savedModule = moduleRepository.save(module);
+        courseRepository.touch(courseId, Instant.now());
+        progressCounterService.onModuleAdded(courseId);
+        catalogCacheEvictor.evictCourse(courseId);
+        searchIndexService.indexModule(savedModule.getId(), savedModule.getTitle(), savedModule.getSummary(), courseId);
+        return savedModule;
+    }
+
+    /**
+     * Points the course thumbnail and cover at resized variants of an uploaded image.
+     */
+    @Transactional
+    public Course setCourseImage(Long courseId, StoredFile image) {
+        Course course = courseRepository.findById(courseId)
+            .orElseThrow(() -> new RuntimeException("Course not found"));
+
+        mediaBlobService.retainImage(image);
+        course.setThumbnailUrl(mediaBlobService.thumbnailUrl(image.getFileName()));
+        course.setCoverImageUrl(mediaBlobService.coverImageUrl(image.getFileName()));
+        course.setLastModified(Instant.now());
+        catalogCacheEvictor.evictCourse(courseId);
+        return course;
     }
 }
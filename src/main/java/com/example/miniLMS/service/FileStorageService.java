@@ -1,38 +1,76 @@
 package com.example.miniLMS.service;
 
+import com.example.miniLMS.dto.StoredFile;
+import com.example.miniLMS.storage.BlobStat;
+import com.example.miniLMS.storage.StorageBackend;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Timed("lms.service")
 @Slf4j
 public class FileStorageService {
 
-    private final Path fileStorageLocation;
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
 
-    public FileStorageService(@Value("${file.upload-dir:./uploads}") String uploadDir) {
-        this.fileStorageLocation = Paths.get(uploadDir)
-                .toAbsolutePath().normalize();
+    private final StorageBackend storageBackend;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path partialUploadLocation;
+    private final Counter storedBytes;
+    private final Counter deduplicatedBytes;
+
+    public FileStorageService(
+            @Value("${file.upload-dir:./uploads}") String uploadDir,
+            StorageBackend storageBackend,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.storageBackend = storageBackend;
+        this.eventPublisher = eventPublisher;
+        this.storedBytes = uploadedBytes(meterRegistry, "stored");
+        this.deduplicatedBytes = uploadedBytes(meterRegistry, "deduplicated");
+        // Uploads are assembled here before they are handed to the storage backend; with the
+        // local backend this is the same file system, so storing them is a rename
+        this.partialUploadLocation = Paths.get(uploadDir)
+                .toAbsolutePath().normalize().resolve(".partial");
         try {
-            Files.createDirectories(this.fileStorageLocation);
-            log.info("File storage location created: {}", this.fileStorageLocation);
+            Files.createDirectories(this.partialUploadLocation);
+            log.info("Upload staging location created: {}", this.partialUploadLocation);
         } catch (IOException ex) {
-            log.error("Could not create file storage directory", ex);
+            log.error("Could not create upload staging directory", ex);
             throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
         }
     }
 
-    public String storeFile(MultipartFile file) {
+    /**
+     * Stores an upload under the SHA-256 of its content. The file is hashed while it is
+     * streamed to a temporary file, which then either becomes the blob or, when the same
+     * content is already stored, is dropped. The returned file name is the digest, and the
+     * returned size and media type are meant to be kept with whatever references the file.
+     */
+    public StoredFile storeFile(MultipartFile file) {
         try {
             if (file.isEmpty()) {
                 throw new RuntimeException("Failed to store empty file");
@@ -43,42 +81,103 @@ public class FileStorageService {
                 throw new RuntimeException("Invalid file path sequence in filename: " + fileName);
             }
 
-            // Generate unique filename
-            String uniqueFileName = System.currentTimeMillis() + "_" + fileName;
-            Path targetLocation = this.fileStorageLocation.resolve(uniqueFileName);
+            log.info("Storing file: {}", fileName);
+            Path tempFile = partialUploadLocation.resolve("upload-" + UUID.randomUUID());
+            MessageDigest digest = newDigest();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, tempFile);
+            }
+            String contentType = ContentTypeDetector.detect(tempFile, fileName, file.getContentType());
+            return storeBlob(tempFile, HexFormat.of().formatHex(digest.digest()), contentType);
+        } catch (IOException ex) {
+            log.error("Failed to store file", ex);
+            throw new RuntimeException("Failed to store file. " + ex.getMessage(), ex);
+        }
+    }
+
+    public Path createStagingFile() throws IOException {
+        return Files.createTempFile(partialUploadLocation, "staged-", ".tmp");
+    }
 
-            log.info("Storing file: {} at location: {}", fileName, targetLocation);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    public Path getPartialUploadPath(String uploadId) {
+        return partialUploadLocation.resolve(uploadId);
+    }
 
-            return uniqueFileName;
+    /**
+     * Moves a fully assembled chunked upload into the store without copying it.
+     */
+    public StoredFile storePartialUpload(Path partialFile, String checksum, String contentType) {
+        try {
+            return storeBlob(partialFile, checksum, contentType);
         } catch (IOException ex) {
-            log.error("Failed to store file", ex);
+            log.error("Failed to store chunked upload", ex);
             throw new RuntimeException("Failed to store file. " + ex.getMessage(), ex);
         }
     }
 
+    public static boolean isDigest(String key) {
+        return key != null && DIGEST_PATTERN.matcher(key).matches();
+    }
+
+    private StoredFile storeBlob(Path tempFile, String digest, String contentType) throws IOException {
+        long size = Files.size(tempFile);
+        if (storageBackend.stat(digest).isPresent()) {
+            log.info("Content {} already stored, skipping duplicate", digest);
+            Files.delete(tempFile);
+            deduplicatedBytes.increment(size);
+        } else {
+            // Blobs are immutable, so losing a race against an identical upload is harmless
+            storageBackend.put(digest, tempFile);
+            eventPublisher.publishEvent(new MediaStoredEvent(digest, contentType));
+            storedBytes.increment(size);
+        }
+        return new StoredFile(digest, digest, size, contentType);
+    }
+
+    private static Counter uploadedBytes(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("lms.storage.uploaded")
+            .description("Bytes of uploaded files, by whether they were stored or matched a stored file")
+            .baseUnit("bytes")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    public static String sha256Hex(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    public static String sha256Hex(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     public Resource loadFileAsResource(String fileName) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            if(resource.exists()) {
-                return resource;
-            } else {
-                throw new RuntimeException("File not found: " + fileName);
+            Path localPath = storageBackend.localPath(fileName).orElse(null);
+            if (localPath != null) {
+                return new FileSystemResource(localPath);
             }
-        } catch (MalformedURLException ex) {
+            return new InputStreamResource(storageBackend.get(fileName));
+        } catch (IOException ex) {
             throw new RuntimeException("File not found: " + fileName, ex);
         }
     }
 
-    public Path getFilePath(String fileName) {
+    public Optional<BlobStat> stat(String fileName) {
         try {
-            Path filePath = fileStorageLocation.resolve(fileName).normalize();
-            if (!Files.exists(filePath)) {
-                throw new RuntimeException("File not found: " + fileName);
-            }
-            return filePath;
-        } catch (Exception ex) {
+            return storageBackend.stat(fileName);
+        } catch (IOException ex) {
             log.error("Error accessing file: {}", fileName, ex);
             throw new RuntimeException("Error accessing file: " + fileName, ex);
         }
@@ -0,0 +1,204 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.storage.StorageBackend;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates downscaled JPEG variants of stored images, so catalog cards and previews do not
+ * pull full-size originals. Work runs on a small bounded pool after the upload has been
+ * stored; when the queue is full the image is skipped and keeps being served in full size.
+ * Variants are stored next to the original as {@code {digest}_w{width}}.
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService {
+    private final StorageBackend storageBackend;
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolExecutor executor;
+    private final int[] widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final AtomicLong skipped = new AtomicLong();
+
+    public ImageDerivativeService(
+            StorageBackend storageBackend,
+            FileStorageService fileStorageService,
+            @Value("${media.derivatives.widths:200,400,800}") int[] widths,
+            @Value("${media.derivatives.jpeg-quality:0.8}") float jpegQuality,
+            @Value("${media.derivatives.max-pixels:50000000}") long maxPixels,
+            @Value("${media.derivatives.threads:2}") int threads,
+            @Value("${media.derivatives.queue-capacity:100}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.storageBackend = storageBackend;
+        this.fileStorageService = fileStorageService;
+        this.widths = Arrays.stream(widths).sorted().toArray();
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        // Decoding is CPU and memory heavy, so the pool stays bounded with virtual threads too;
+        // they only free a carrier while variants are read from or written to storage
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            ThreadFactories.named("image-derivatives-", virtualThreads),
+            (task, pool) -> {
+                skipped.incrementAndGet();
+                log.warn("Image derivative queue full, skipping variants for one upload");
+            });
+    }
+
+    @EventListener
+    public void onMediaStored(MediaStoredEvent event) {
+        if (event.contentType() != null && event.contentType().startsWith("image/")) {
+            executor.execute(() -> generateVariants(event.key()));
+        }
+    }
+
+    /**
+     * Returns the key of the smallest variant at least as wide as requested, or of the widest
+     * one if none is. Empty when that variant does not exist (yet), in which case the original
+     * should be served.
+     */
+    public Optional<String> findVariant(String key, int requestedWidth) {
+        int width = Arrays.stream(widths)
+            .filter(w -> w >= requestedWidth)
+            .findFirst()
+            .orElse(widths[widths.length - 1]);
+        String variantKey = variantKey(key, width);
+        try {
+            return storageBackend.stat(variantKey).map(stat -> variantKey);
+        } catch (IOException e) {
+            log.warn("Could not look up variant {}", variantKey, e);
+            return Optional.empty();
+        }
+    }
+
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void generateVariants(String key) {
+        long started = System.nanoTime();
+        try {
+            SourceImage source = readImage(key);
+            if (source == null) {
+                return;
+            }
+            int generated = 0;
+            for (int width : widths) {
+                // Never upscale; images narrower than a variant are served as they are
+                if (width >= source.originalWidth()) {
+                    break;
+                }
+                storeVariant(key, width, resize(source.image(), width));
+                generated++;
+            }
+            log.info("Generated {} variants of {} in {} ms", generated, key,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            log.warn("Could not generate variants of {}", key, e);
+        }
+    }
+
+    private SourceImage readImage(String key) throws IOException {
+        try (InputStream in = storageBackend.get(key);
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                log.info("No image reader for {}, skipping variants", key);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    log.info("Image {} is {}x{}, too large for variants", key, sourceWidth, sourceHeight);
+                    return null;
+                }
+                // Decode at no more than twice the widest variant to bound memory and time
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / (2 * widths[widths.length - 1]));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return new SourceImage(reader.read(0, param), sourceWidth);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha channel; transparent areas become white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void storeVariant(String key, int width, BufferedImage image) throws IOException {
+        Path staged = fileStorageService.createStagingFile();
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(staged.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            storageBackend.put(variantKey(key, width), staged);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    private record SourceImage(BufferedImage image, int originalWidth) {
+    }
+
+    private static String variantKey(String key, int width) {
+        return key + "_w" + width;
+    }
+}
@@ -1,28 +1,46 @@
 package com.example.miniLMS.service;
 
+import com.example.miniLMS.config.CacheConfig;
 import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonBody;
 import com.example.miniLMS.entity.LessonProgress;
 import com.example.miniLMS.entity.Module;
 import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.repository.LessonBodyRepository;
 import com.example.miniLMS.repository.LessonRepository;
 import com.example.miniLMS.repository.LessonProgressRepository;
 import com.example.miniLMS.repository.ModuleRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.Optional;
 
 @Service
+@Timed("lms.service")
 @RequiredArgsConstructor
 public class LessonService {
+    public static final String TEXT_CONTENT_TYPE = "text/plain;charset=UTF-8";
+
     private final LessonRepository lessonRepository;
     private final ModuleRepository moduleRepository;
+    private final CourseRepository courseRepository;
     private final LessonProgressRepository progressRepository;
     private final FileStorageService fileStorageService;
+    private final ProgressCounterService progressCounterService;
+    private final ProgressWriteBuffer progressWriteBuffer;
+    private final CatalogCacheEvictor catalogCacheEvictor;
+    private final MediaBlobService mediaBlobService;
+    private final LessonBodyRepository lessonBodyRepository;
+    private final SearchIndexService searchIndexService;
 
     @Transactional
     public Lesson createLesson(Long moduleId, Lesson lesson) {
@@ -31,48 +49,115 @@ public class LessonService {
                 .orElseThrow(() -> new RuntimeException("Module not found"));
 
         validateLessonContent(lesson);
+        byte[] compressedText = null;
+        String plainText = null;
+        if (lesson.getType() == LessonType.TEXT) {
+            plainText = lesson.getContent();
+            compressedText = compressText(lesson);
+        }
         lesson.setModule(found);
-        found.getLessons().add(lesson);
+        if (lesson.getType() != LessonType.TEXT) {
+            if (lesson.getContentType() == null) {
+                lesson.setContentType(lesson.getType().getDefaultContentType());
+            }
+            if (FileStorageService.isDigest(lesson.getContent())) {
+                retainBlob(lesson);
+            }
+        }
 
-        // Save only through the module to avoid duplicate saves
-        moduleRepository.save(found);
-        lessonRepository.save(lesson);
-        return lesson;
+        // Save only the lesson; saving the managed module or adding to its lessons would
+        // update the module row and fail concurrent creates with an optimistic lock conflict
+        Lesson savedLesson = lessonRepository.save(lesson);
+        if (compressedText != null) {
+            LessonBody body = new LessonBody();
+            body.setLesson(savedLesson);
+            body.setGzipContent(compressedText);
+            lessonBodyRepository.save(body);
+        }
+
+        // A new lesson changes the representation of its module and course, which bumps their versions
+        Instant now = Instant.now();
+        moduleRepository.touch(moduleId, now);
+        courseRepository.touch(found.getCourse().getId(), now);
+        progressCounterService.onLessonAdded(moduleId, found.getCourse().getId());
+        catalogCacheEvictor.evictModule(moduleId);
+        catalogCacheEvictor.evictCourse(found.getCourse().getId());
+        searchIndexService.indexLesson(savedLesson.getId(), savedLesson.getTitle(), plainText,
+            found.getCourse().getId(), moduleId);
+        return savedLesson;
     }
 
+    @Cacheable(cacheNames = CacheConfig.LESSONS, unless = "#result == null")
     public Optional<Lesson> getLessonById(Long id) {
         return lessonRepository.findById(id);
     }
 
+    /**
+     * Returns the gzip compressed body of a TEXT lesson. Lessons created before bodies were
+     * split out keep their text in Lesson.content and have none.
+     */
+    public Optional<byte[]> getCompressedBody(Long lessonId) {
+        return lessonBodyRepository.findById(lessonId).map(LessonBody::getGzipContent);
+    }
+
+    @Transactional
     public LessonProgress markLessonComplete(Long lessonId, String userId) {
         Lesson lesson = lessonRepository.findById(lessonId)
             .orElseThrow(() -> new RuntimeException("Lesson not found"));
 
-        LessonProgress progress = progressRepository
-            .findByUserIdAndLesson(userId, lesson)
-            .orElse(new LessonProgress());
+        // The upsert makes concurrent duplicates a no-op instead of a unique violation
+        boolean newlyCompleted = progressRepository.markCompleted(userId, lesson) > 0;
+        LessonProgress saved = progressRepository.findByUserIdAndLesson(userId, lesson)
+            .orElseThrow(() -> new IllegalStateException("Progress row missing after upsert"));
 
-        progress.setUserId(userId);
-        progress.setLesson(lesson);
-        progress.setCompleted(true);
+        if (newlyCompleted) {
+            Module module = lesson.getModule();
+            progressCounterService.recordCompletions(userId, module.getId(), module.getCourse().getId(), 1);
+        }
+        return saved;
+    }
 
-        return progressRepository.save(progress);
+    public boolean isWriteBehindEnabled() {
+        return progressWriteBuffer.isEnabled();
     }
 
-    public Object getLessonContent(Long lessonId) throws Exception {
-        Lesson lesson = lessonRepository.findById(lessonId)
-            .orElseThrow(() -> new RuntimeException("Lesson not found"));
+    /**
+     * Queues a completion in the write-behind buffer. The lesson is not looked up here;
+     * completions for unknown lessons are dropped when the buffer is flushed.
+     */
+    public void submitLessonComplete(Long lessonId, String userId) {
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("User id cannot be empty");
+        }
+        progressWriteBuffer.submit(userId, lessonId);
+    }
 
-        // For TEXT type, return the content directly from database
-        if (lesson.getType() == LessonType.TEXT) {
-            return lesson.getContent();
+    /**
+     * Moves the text of a TEXT lesson to lesson_body: records its hash, content type and
+     * length on the lesson and returns the body, compressed once here and served as stored.
+     */
+    static byte[] compressText(Lesson lesson) {
+        byte[] text = lesson.getContent().getBytes(StandardCharsets.UTF_8);
+        if (lesson.getContentHash() == null) {
+            lesson.setContentHash(FileStorageService.sha256Hex(text));
         }
+        lesson.setContent(null);
+        lesson.setContentType(TEXT_CONTENT_TYPE);
+        lesson.setContentLength((long) text.length);
+        return TextCompression.gzip(text);
+    }
 
-        // For file types (VIDEO, IMAGE, PDF), return the file as a Resource
-        return fileStorageService.loadFileAsResource(lesson.getContent());
+    void retainBlob(Lesson lesson) {
+        String digest = lesson.getContent();
+        long size = lesson.getContentLength() != null
+            ? lesson.getContentLength()
+            : fileStorageService.stat(digest)
+                .orElseThrow(() -> new RuntimeException("Stored file missing for " + digest))
+                .getSize();
+        mediaBlobService.retain(digest, size, lesson.getContentType());
     }
 
-    private void validateLessonContent(Lesson lesson) {
+    void validateLessonContent(Lesson lesson) {
         if (lesson.getContent() == null || lesson.getContent().trim().isEmpty()) {
             throw new IllegalArgumentException("Lesson content cannot be empty");
         }
@@ -0,0 +1,59 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.StoredFile;
+import com.example.miniLMS.entity.MediaBlob;
+import com.example.miniLMS.repository.MediaBlobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps track of which stored blobs are referenced, by lessons and by course and module images.
+ */
+@Service
+@RequiredArgsConstructor
+public class MediaBlobService {
+    private final MediaBlobRepository mediaBlobRepository;
+
+    @Value("${media.thumbnail-width:400}")
+    private int thumbnailWidth;
+
+    @Value("${media.cover-width:800}")
+    private int coverWidth;
+
+    public Optional<MediaBlob> getMediaBlob(String digest) {
+        return mediaBlobRepository.findById(digest);
+    }
+
+    public void retain(StoredFile storedFile) {
+        retain(storedFile.getFileName(), storedFile.getSize(), storedFile.getContentType());
+    }
+
+    public void retain(String digest, long size, String contentType) {
+        if (mediaBlobRepository.incrementReferenceCount(digest) == 0) {
+            mediaBlobRepository.insertOrIncrement(digest, size, contentType, Instant.now());
+        }
+    }
+
+    /**
+     * Registers an uploaded course or module image, rejecting anything that is not an image.
+     */
+    public void retainImage(StoredFile storedFile) {
+        if (storedFile.getContentType() == null || !storedFile.getContentType().startsWith("image/")) {
+            throw new IllegalArgumentException("Uploaded file is not a supported image");
+        }
+        retain(storedFile);
+    }
+
+    // Card-sized and page-sized variants; until they are generated the original is served
+    public String thumbnailUrl(String digest) {
+        return "/media/" + digest + "?width=" + thumbnailWidth;
+    }
+
+    public String coverImageUrl(String digest) {
+        return "/media/" + digest + "?width=" + coverWidth;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.miniLMS.service;
+
+/**
+ * Published once a new blob has been written to the storage backend.
+ */
+public record MediaStoredEvent(String key, String contentType) {
+}
@@ -0,0 +1,19 @@
+package com.example.miniLMS.service;
+
+/**
+ * A request for a resumable upload reached another instance than the one holding its partial
+ * file. Uploads are staged on local disk, so every request of a session has to be routed to
+ * the instance that started it.
+ */
+public class MisdirectedUploadException extends RuntimeException {
+    private final String node;
+
+    public MisdirectedUploadException(String uploadId, String node) {
+        super("Upload " + uploadId + " is staged on instance " + node);
+        this.node = node;
+    }
+
+    public String getNode() {
+        return node;
+    }
+}
@@ -1,40 +1,72 @@
 package com.example.miniLMS.service;
 
+import com.example.miniLMS.config.CacheConfig;
+import com.example.miniLMS.dto.ModuleOutline;
+import com.example.miniLMS.dto.StoredFile;
 import com.example.miniLMS.entity.Module;
-import com.example.miniLMS.entity.Lesson;
-import com.example.miniLMS.entity.LessonProgress;
+import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.repository.LessonRepository;
 import com.example.miniLMS.repository.ModuleRepository;
-import com.example.miniLMS.repository.LessonProgressRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.cache.annotation.Cacheable;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
+import java.time.Instant;
 import java.util.*;
 
 @Service
+@Timed("lms.service")
 @RequiredArgsConstructor
 public class ModuleService {
     private final ModuleRepository moduleRepository;
-    private final LessonProgressRepository lessonProgressRepository;
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final ProgressService progressService;
+    private final MediaBlobService mediaBlobService;
+    private final CatalogCacheEvictor catalogCacheEvictor;
 
+    @Cacheable(cacheNames = CacheConfig.MODULES, unless = "#result == null")
     public Optional<Module> getModuleById(Long id) {
-        return moduleRepository.findById(id);
+        return moduleRepository.findWithLessonsById(id);
+    }
+
+    /**
+     * Returns the module with lesson headers only, in two queries. Lesson content is served
+     * by /lessons/{id}/content.
+     */
+    @Cacheable(cacheNames = CacheConfig.MODULE_OUTLINES, unless = "#result == null")
+    public Optional<ModuleOutline> getModuleOutline(Long id) {
+        return moduleRepository.findById(id).map(module -> new ModuleOutline(
+            module.getId(),
+            module.getTitle(),
+            module.getSummary(),
+            module.getThumbnailUrl(),
+            module.getCoverImageUrl(),
+            lessonRepository.findStubsByModuleId(id)));
     }
 
     public double calculateModuleProgress(Long moduleId, String userId) {
+        return progressService.getModuleProgress(moduleId, userId).getProgress();
+    }
+
+    /**
+     * Points the module thumbnail and cover at resized variants of an uploaded image.
+     */
+    @Transactional
+    public Module setModuleImage(Long moduleId, StoredFile image) {
         Module module = moduleRepository.findById(moduleId)
             .orElseThrow(() -> new RuntimeException("Module not found"));
 
-        List<Lesson> lessons = module.getLessons();
-        if (lessons == null || lessons.isEmpty()) {
-            return 0.0;
-        }
-
-        List<LessonProgress> progress = lessonProgressRepository
-            .findByUserIdAndLessonIn(userId, lessons);
-
-        long completedLessons = progress.stream()
-            .filter(LessonProgress::isCompleted)
-            .count();
-
-        return (double) completedLessons / lessons.size();
+        mediaBlobService.retainImage(image);
+        module.setThumbnailUrl(mediaBlobService.thumbnailUrl(image.getFileName()));
+        module.setCoverImageUrl(mediaBlobService.coverImageUrl(image.getFileName()));
+        // Modules are embedded in the course representation
+        Instant now = Instant.now();
+        module.setLastModified(now);
+        courseRepository.touch(module.getCourse().getId(), now);
+        catalogCacheEvictor.evictModule(moduleId);
+        catalogCacheEvictor.evictCourse(module.getCourse().getId());
+        return module;
     }
 }
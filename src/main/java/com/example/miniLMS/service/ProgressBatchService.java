@@ -0,0 +1,93 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.BatchProgressResult;
+import com.example.miniLMS.dto.LessonRef;
+import com.example.miniLMS.dto.ProgressEntry;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.repository.LessonProgressRepository;
+import com.example.miniLMS.repository.LessonRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Records many lesson completions at once. One query resolves the lessons, then each entry
+ * is written with an insert ... on conflict upsert and the counters are bumped once per
+ * (user, module) touched by the number of rows that upsert actually completed.
+ */
+@Service
+@Timed("lms.service")
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressBatchService {
+    private final LessonRepository lessonRepository;
+    private final LessonProgressRepository progressRepository;
+    private final ProgressCounterService progressCounterService;
+    private final EntityManager entityManager;
+
+    @Value("${progress.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Transactional
+    public BatchProgressResult recordCompletions(List<ProgressEntry> entries) {
+        if (entries.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + entries.size() + " exceeds the maximum of " + maxBatchSize);
+        }
+
+        // Duplicates inside one batch are collapsed, which keeps the upsert idempotent
+        Set<ProgressEntry> unique = new LinkedHashSet<>();
+        for (ProgressEntry entry : entries) {
+            if (entry.getUserId() == null || entry.getUserId().isBlank() || entry.getLessonId() == null) {
+                throw new IllegalArgumentException("Every entry needs a userId and a lessonId");
+            }
+            unique.add(entry);
+        }
+        if (unique.isEmpty()) {
+            return new BatchProgressResult(entries.size(), 0, 0, List.of());
+        }
+
+        Set<Long> lessonIds = unique.stream().map(ProgressEntry::getLessonId).collect(Collectors.toSet());
+        Map<Long, LessonRef> lessons = lessonRepository.findRefsByIdIn(lessonIds).stream()
+            .collect(Collectors.toMap(LessonRef::getLessonId, Function.identity()));
+
+        Map<ModuleKey, Long> completionsByModule = new LinkedHashMap<>();
+        Set<Long> unknownLessons = new TreeSet<>();
+        int alreadyCompleted = 0;
+
+        for (ProgressEntry entry : unique) {
+            LessonRef lesson = lessons.get(entry.getLessonId());
+            if (lesson == null) {
+                unknownLessons.add(entry.getLessonId());
+                continue;
+            }
+
+            // Only rows actually inserted or completed here count, so a concurrent batch
+            // with the same entries neither fails nor bumps the counters twice
+            int inserted = progressRepository.markCompleted(entry.getUserId(),
+                entityManager.getReference(Lesson.class, lesson.getLessonId()));
+            if (inserted == 0) {
+                alreadyCompleted++;
+                continue;
+            }
+            completionsByModule.merge(new ModuleKey(entry.getUserId(), lesson.getModuleId(), lesson.getCourseId()), 1L, Long::sum);
+        }
+
+        completionsByModule.forEach((key, completed) -> progressCounterService.recordCompletions(
+            key.userId(), key.moduleId(), key.courseId(), completed));
+
+        int completed = completionsByModule.values().stream().mapToInt(Long::intValue).sum();
+        log.info("Recorded batch of {} progress entries: {} completed, {} already completed, {} unknown lessons",
+            entries.size(), completed, alreadyCompleted, unknownLessons.size());
+        return new BatchProgressResult(entries.size(), completed, alreadyCompleted, new ArrayList<>(unknownLessons));
+    }
+
+    private record ModuleKey(String userId, Long moduleId, Long courseId) {
+    }
+}
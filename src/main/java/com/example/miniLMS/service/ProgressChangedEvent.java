@@ -0,0 +1,7 @@
+package com.example.miniLMS.service;
+
+/**
+ * Published inside the transaction that recorded new completions of a user in a course.
+ */
+public record ProgressChangedEvent(String userId, Long courseId) {
+}
@@ -0,0 +1,85 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.repository.ModuleRepository;
+import com.example.miniLMS.repository.UserCourseProgressRepository;
+import com.example.miniLMS.repository.UserModuleProgressRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the materialized per-(user, module) and per-(user, course) progress counters.
+ * Every method is expected to run inside the transaction that changes the underlying data.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressCounterService {
+    private final ModuleRepository moduleRepository;
+    private final CourseRepository courseRepository;
+    private final UserModuleProgressRepository userModuleProgressRepository;
+    private final UserCourseProgressRepository userCourseProgressRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${progress.counters.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Transactional
+    public void recordCompletions(String userId, Long moduleId, Long courseId, long completed) {
+        if (completed <= 0) {
+            return;
+        }
+
+        userModuleProgressRepository.addCompletedLessons(userId, entityManager.getReference(Module.class, moduleId), completed);
+        userCourseProgressRepository.insertIfAbsent(userId, entityManager.getReference(Course.class, courseId));
+        userCourseProgressRepository.refresh(userId, courseId);
+        eventPublisher.publishEvent(new ProgressChangedEvent(userId, courseId));
+    }
+
+    @Transactional
+    public void onLessonAdded(Long moduleId, Long courseId) {
+        moduleRepository.refreshLessonCount(moduleId);
+        // A larger denominator lowers the module progress of everyone who already started it
+        userCourseProgressRepository.refreshForModule(courseId, moduleId);
+    }
+
+    @Transactional
+    public void onModuleAdded(Long courseId) {
+        courseRepository.refreshModuleCount(courseId);
+    }
+
+    /**
+     * Recomputes every counter from the lesson, module and progress tables. Used to backfill
+     * databases created before the counters existed.
+     */
+    @Transactional
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        courseRepository.refreshAllModuleCounts();
+        moduleRepository.refreshAllLessonCounts();
+        userCourseProgressRepository.deleteAllInBatch();
+        userModuleProgressRepository.deleteAllInBatch();
+        int modules = userModuleProgressRepository.rebuildAll();
+        int courses = userCourseProgressRepository.rebuildAll();
+        log.info("Rebuilt progress counters: {} module rows, {} course rows in {} ms",
+            modules, courses, System.currentTimeMillis() - start);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.ProgressExportRow;
+import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.repository.LessonProgressRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes the lesson progress of every user in a course as CSV or JSON Lines.
+ *
+ * <p>Rows are read from a database cursor and written to the output as they arrive, so memory
+ * use stays the same whatever the number of progress rows. The export holds one connection
+ * and a read-only transaction for as long as the client takes to download it.
+ */
+@Service
+@Timed("lms.service")
+@Slf4j
+public class ProgressExportService {
+    private static final String CSV_HEADER = "user_id,module_id,module_title,lesson_id,lesson_title,completed";
+
+    private final CourseRepository courseRepository;
+    private final LessonProgressRepository progressRepository;
+    private final ProgressWriteBuffer progressWriteBuffer;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter rowWriter;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        JSONL("application/x-ndjson", "jsonl");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported format " + value + ", expected csv or jsonl");
+            }
+        }
+    }
+
+    public ProgressExportService(
+            CourseRepository courseRepository,
+            LessonProgressRepository progressRepository,
+            ProgressWriteBuffer progressWriteBuffer,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.courseRepository = courseRepository;
+        this.progressRepository = progressRepository;
+        this.progressWriteBuffer = progressWriteBuffer;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rowWriter = objectMapper.writerFor(ProgressExportRow.class);
+    }
+
+    public boolean courseExists(Long courseId) {
+        return courseRepository.existsById(courseId);
+    }
+
+    /**
+     * Writes the progress of a course to {@code out}, ordered by module, lesson and user.
+     * Returns the number of rows written.
+     */
+    public long exportCourseProgress(Long courseId, Format format, OutputStream out) throws IOException {
+        // Completions still in the write-behind buffer belong in the report
+        progressWriteBuffer.flushAll();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<ProgressExportRow> stream = progressRepository.streamCourseProgress(courseId)) {
+                    for (ProgressExportRow row : (Iterable<ProgressExportRow>) stream::iterator) {
+                        if (format == Format.CSV) {
+                            writeCsv(writer, row);
+                        } else {
+                            writer.write(rowWriter.writeValueAsString(row));
+                            writer.write('\n');
+                        }
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor and transaction are closed by now
+            throw e.getCause();
+        }
+        writer.flush();
+        log.debug("Exported {} progress rows of course {}", rows, courseId);
+        return rows;
+    }
+
+    private static void writeCsv(Writer writer, ProgressExportRow row) throws IOException {
+        writer.write(csv(row.getUserId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getModuleId()));
+        writer.write(',');
+        writer.write(csv(row.getModuleTitle()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getLessonId()));
+        writer.write(',');
+        writer.write(csv(row.getLessonTitle()));
+        writer.write(',');
+        writer.write(String.valueOf(row.isCompleted()));
+        writer.write('\n');
+    }
+
+    // RFC 4180 quoting
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
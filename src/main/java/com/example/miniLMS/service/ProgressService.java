@@ -0,0 +1,72 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.CourseModuleProgress;
+import com.example.miniLMS.dto.CourseProgress;
+import com.example.miniLMS.dto.CourseProgressSummary;
+import com.example.miniLMS.dto.ModuleProgress;
+import com.example.miniLMS.dto.UserProgress;
+import com.example.miniLMS.repository.UserCourseProgressRepository;
+import com.example.miniLMS.repository.UserModuleProgressRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of progress tracking. All reads are served from the counters maintained by
+ * {@link ProgressCounterService}, so none of them touches the lesson progress table.
+ * Completions still buffered for the user are flushed first, giving read-your-writes.
+ */
+@Service
+@Timed("lms.service")
+@RequiredArgsConstructor
+public class ProgressService {
+    private final UserModuleProgressRepository userModuleProgressRepository;
+    private final UserCourseProgressRepository userCourseProgressRepository;
+    private final ProgressWriteBuffer progressWriteBuffer;
+
+    public double calculateCourseProgress(Long courseId, String userId) {
+        progressWriteBuffer.flushUser(userId);
+        return userCourseProgressRepository.findCourseProgress(courseId, userId)
+            .orElseThrow(() -> new RuntimeException("Course not found"));
+    }
+
+    public ModuleProgress getModuleProgress(Long moduleId, String userId) {
+        progressWriteBuffer.flushUser(userId);
+        return userModuleProgressRepository.findModuleProgress(moduleId, userId)
+            .orElseThrow(() -> new RuntimeException("Module not found"));
+    }
+
+    /**
+     * Returns per-module and overall completion of a course for a user. The overall value is
+     * the average of module progresses, with empty modules counting as 0.
+     */
+    public CourseProgress getCourseProgress(Long courseId, String userId) {
+        double progress = calculateCourseProgress(courseId, userId);
+        List<ModuleProgress> modules = userModuleProgressRepository
+            .findModuleProgressByCourseId(courseId, userId);
+        return new CourseProgress(courseId, userId, progress, modules);
+    }
+
+    /**
+     * Returns the progress of a user in every course they have started, with the module
+     * breakdown if asked for. Takes one query, or two with modules, however many courses.
+     */
+    public UserProgress getUserProgress(String userId, boolean includeModules) {
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("User id cannot be empty");
+        }
+        progressWriteBuffer.flushUser(userId);
+        List<CourseProgressSummary> courses = userCourseProgressRepository.findCourseProgressByUserId(userId);
+        if (includeModules && !courses.isEmpty()) {
+            Map<Long, List<ModuleProgress>> modulesByCourse = userModuleProgressRepository
+                .findModuleProgressByUserId(userId).stream()
+                .collect(Collectors.groupingBy(CourseModuleProgress::getCourseId,
+                    Collectors.mapping(CourseModuleProgress::toModuleProgress, Collectors.toList())));
+            courses.forEach(course -> course.setModules(modulesByCourse.getOrDefault(course.getCourseId(), List.of())));
+        }
+        return new UserProgress(userId, courses);
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.CourseProgress;
+import com.example.miniLMS.repository.CourseRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the progress of a user in a course to open Server-Sent Events streams.
+ *
+ * <p>Streams are grouped by (user, course). When a transaction that recorded completions
+ * commits, the progress of that pair is read once from the counters and handed to every
+ * stream of the pair; further changes arriving meanwhile are coalesced into one more read.
+ * No thread is held per stream while it is idle. Each stream has a bounded buffer drained by
+ * its own task; when its buffer is full the oldest event is dropped, as every event carries
+ * the complete progress. Idle streams get a comment every {@code progress.stream.heartbeat}
+ * to keep proxies from closing them and to notice clients that went away.
+ *
+ * <p>Reads and writes run on separate executors, so clients that are slow to receive never
+ * hold up the reads of other streams. A write that takes longer than
+ * {@code progress.stream.send-timeout} drops its client and interrupts the writing thread, so
+ * with platform threads a few stalled clients cannot occupy the write pool for long.
+ */
+@Service
+@Timed("lms.service")
+@Slf4j
+public class ProgressStreamService {
+    private static final String PROGRESS_EVENT = "progress";
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final ProgressService progressService;
+    private final CourseRepository courseRepository;
+    private final ConcurrentHashMap<ChannelKey, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter droppedEvents;
+    private final Counter slowClients;
+    private final ExecutorService readExecutor;
+    private final ExecutorService sendExecutor;
+    private final ScheduledExecutorService heartbeats;
+    private final int maxConnections;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Duration heartbeat;
+    private final Duration sendTimeout;
+
+    public ProgressStreamService(
+            ProgressService progressService,
+            CourseRepository courseRepository,
+            MeterRegistry meterRegistry,
+            @Value("${progress.stream.max-connections:10000}") int maxConnections,
+            @Value("${progress.stream.buffer-size:16}") int bufferSize,
+            @Value("${progress.stream.timeout:PT30M}") Duration timeout,
+            @Value("${progress.stream.heartbeat:PT15S}") Duration heartbeat,
+            @Value("${progress.stream.send-timeout:PT10S}") Duration sendTimeout,
+            @Value("${progress.stream.read-threads:2}") int readThreads,
+            @Value("${progress.stream.send-threads:8}") int sendThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.progressService = progressService;
+        this.courseRepository = courseRepository;
+        this.maxConnections = maxConnections;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.heartbeat = heartbeat;
+        this.sendTimeout = sendTimeout;
+        // Writing to a slow client blocks the writing thread; virtual threads make that cheap,
+        // platform threads are limited to small pools
+        this.readExecutor = newExecutor("progress-read-", readThreads, virtualThreads);
+        this.sendExecutor = newExecutor("progress-send-", sendThreads, virtualThreads);
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(ThreadFactories.named("progress-heartbeat-", false));
+        Gauge.builder("lms.progress.streams", connections, AtomicInteger::get)
+            .description("Open progress event streams")
+            .register(meterRegistry);
+        this.droppedEvents = Counter.builder("lms.progress.stream.dropped")
+            .description("Progress events dropped because a client did not keep up")
+            .register(meterRegistry);
+        this.slowClients = Counter.builder("lms.progress.stream.slow")
+            .description("Progress streams closed because a write took longer than the send timeout")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats,
+            heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        // Slow writes are noticed between one and two send timeouts after they started
+        heartbeats.scheduleAtFixedRate(this::dropSlowClients,
+            sendTimeout.toMillis(), sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of the user's progress in a course, starting with the current progress.
+     * Empty when the course does not exist.
+     *
+     * @throws IllegalStateException when {@code progress.stream.max-connections} streams are open
+     */
+    public Optional<SseEmitter> subscribe(Long courseId, String userId) {
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("User id cannot be empty");
+        }
+        if (!courseRepository.existsById(courseId)) {
+            return Optional.empty();
+        }
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new IllegalStateException("Too many open progress streams");
+        }
+
+        ChannelKey key = new ChannelKey(userId, courseId);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(key, emitter);
+        Channel channel = channels.compute(key, (k, existing) -> {
+            Channel target = existing != null ? existing : new Channel(k);
+            target.subscribers.add(subscriber);
+            return target;
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.close());
+        // Other streams of the pair get the same snapshot again, which clients can ignore
+        channel.changed();
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressChanged(ProgressChangedEvent event) {
+        Channel channel = channels.get(new ChannelKey(event.userId(), event.courseId()));
+        if (channel != null) {
+            channel.changed();
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        readExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+    }
+
+    private void sendHeartbeats() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(Subscriber::offerHeartbeat));
+    }
+
+    private void dropSlowClients() {
+        long deadline = System.nanoTime() - sendTimeout.toNanos();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.dropIfSendingSince(deadline)));
+    }
+
+    private static ExecutorService newExecutor(String prefix, int threads, boolean virtualThreads) {
+        return virtualThreads
+            ? Executors.newThreadPerTaskExecutor(ThreadFactories.named(prefix, true))
+            : Executors.newFixedThreadPool(threads, ThreadFactories.named(prefix, false));
+    }
+
+    private static void execute(ExecutorService executor, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private record ChannelKey(String userId, Long courseId) {
+    }
+
+    /**
+     * The streams of one (user, course) pair. At most one task per channel reads the progress
+     * at a time, so snapshots reach the streams in order.
+     */
+    private final class Channel {
+        private final ChannelKey key;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Channel(ChannelKey key) {
+            this.key = key;
+        }
+
+        private void changed() {
+            dirty.set(true);
+            if (scheduled.compareAndSet(false, true)) {
+                execute(readExecutor, this::publish);
+            }
+        }
+
+        private void publish() {
+            try {
+                while (dirty.getAndSet(false)) {
+                    CourseProgress progress = progressService.getCourseProgress(key.courseId(), key.userId());
+                    Set<DataWithMediaType> event = SseEmitter.event()
+                        .name(PROGRESS_EVENT)
+                        .data(progress, MediaType.APPLICATION_JSON)
+                        .build();
+                    subscribers.forEach(subscriber -> subscriber.offer(event));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not read the progress of {} in course {}", key.userId(), key.courseId(), e);
+            } finally {
+                scheduled.set(false);
+            }
+            // A change that arrived after the last read but before the flag was cleared
+            if (dirty.get() && scheduled.compareAndSet(false, true)) {
+                execute(readExecutor, this::publish);
+            }
+        }
+    }
+
+    private final class Subscriber {
+        private final ChannelKey key;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<DataWithMediaType>> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // The thread blocked in a write and since when; guarded by this subscriber
+        private Thread sender;
+        private long sendStarted;
+
+        private Subscriber(ChannelKey key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        private void offer(Set<DataWithMediaType> event) {
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    droppedEvents.increment();
+                }
+                buffer.addLast(event);
+            }
+            scheduleDrain();
+        }
+
+        private void offerHeartbeat() {
+            synchronized (buffer) {
+                // Anything already queued shows the connection is alive just as well
+                if (!buffer.isEmpty()) {
+                    return;
+                }
+                buffer.addLast(HEARTBEAT);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                execute(sendExecutor, this::drain);
+            }
+        }
+
+        private void drain() {
+            while (!closed.get()) {
+                Set<DataWithMediaType> event;
+                synchronized (buffer) {
+                    event = buffer.pollFirst();
+                    if (event == null) {
+                        draining.set(false);
+                        return;
+                    }
+                }
+                synchronized (this) {
+                    sender = Thread.currentThread();
+                    sendStarted = System.nanoTime();
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away, the stream was completed or the write was interrupted
+                    log.debug("Closing progress stream of {}: {}", key.userId(), e.getMessage());
+                    close();
+                    emitter.completeWithError(e);
+                    return;
+                } finally {
+                    synchronized (this) {
+                        sender = null;
+                    }
+                    // An interrupt of a slow write must not reach the next task of this thread
+                    Thread.interrupted();
+                }
+            }
+            // Dropped while a write was in progress
+            emitter.completeWithError(new IOException("Progress stream closed"));
+        }
+
+        private void dropIfSendingSince(long deadline) {
+            synchronized (this) {
+                if (sender == null || sendStarted - deadline > 0) {
+                    return;
+                }
+                sender.interrupt();
+            }
+            // The emitter is completed by the writing thread; completing it here would wait for the stalled write
+            log.debug("Dropping progress stream of {}, a write took longer than {}", key.userId(), sendTimeout);
+            slowClients.increment();
+            close();
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            connections.decrementAndGet();
+            channels.computeIfPresent(key, (k, channel) -> {
+                channel.subscribers.remove(this);
+                return channel.subscribers.isEmpty() ? null : channel;
+            });
+        }
+    }
+}
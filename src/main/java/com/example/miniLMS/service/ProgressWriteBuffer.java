@@ -0,0 +1,246 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.BatchProgressResult;
+import com.example.miniLMS.dto.BufferStats;
+import com.example.miniLMS.dto.ProgressEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import lombok.extern.slf4j.Slf4j;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind buffer for lesson completions. Completions are de-duplicated per
+ * (user, lesson) in memory and written through {@link ProgressBatchService} when the buffer
+ * reaches the batch size, on a fixed interval, before a progress read of the same user and
+ * on shutdown.
+ */
+@Component
+@Slf4j
+public class ProgressWriteBuffer {
+    private final ProgressBatchService progressBatchService;
+
+    @Value("${progress.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${progress.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${progress.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${progress.write-behind.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // userId -> pending lesson ids; all mutations of a user's set happen inside compute()
+    private final ConcurrentHashMap<String, Set<Long>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Timer flushTimer;
+    private final Counter flushedEntries;
+    private final Counter failedFlushes;
+
+    private ScheduledExecutorService scheduler;
+
+    public ProgressWriteBuffer(ProgressBatchService progressBatchService, MeterRegistry meterRegistry) {
+        this.progressBatchService = progressBatchService;
+        Gauge.builder("lms.progress.buffer.depth", depth, AtomicInteger::get)
+            .description("Completions waiting in the progress write-behind buffer")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("lms.progress.buffer.flush")
+            .description("Time to write one flush of the progress write-behind buffer")
+            .register(meterRegistry);
+        this.flushedEntries = Counter.builder("lms.progress.buffer.flushed")
+            .description("Completions written from the progress write-behind buffer")
+            .register(meterRegistry);
+        this.failedFlushes = Counter.builder("lms.progress.buffer.flush.failures")
+            .description("Flushes of the progress write-behind buffer that failed and were requeued")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            ThreadFactories.named("progress-flush-", virtualThreads));
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Progress write-behind enabled: capacity {}, batch size {}, flush interval {} ms",
+            capacity, batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        flushAll();
+        log.info("Progress write-behind flushed on shutdown, {} entries left", depth.get());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a completion. When the buffer is full the caller flushes it first; if that flush
+     * fails the completion is rejected rather than growing the buffer past its capacity
+     * (concurrent submitters can overshoot it by one entry each).
+     *
+     * @throws IllegalStateException when the buffer is full and cannot be flushed
+     */
+    public void submit(String userId, Long lessonId) {
+        if (depth.get() >= capacity && !flushAllBatches() && depth.get() >= capacity) {
+            throw new IllegalStateException("Progress write-behind buffer is full");
+        }
+
+        add(userId, lessonId);
+
+        if (depth.get() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /**
+     * Writes the pending completions of one user so that a following progress read sees them.
+     * Holds the flush lock, so completions of the user that a concurrent flush has taken out of
+     * the buffer are committed, or back in the buffer, before this checks for pending ones.
+     *
+     * @throws IllegalStateException when the completions could not be written
+     */
+    public void flushUser(String userId) {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (!pending.containsKey(userId)) {
+                return;
+            }
+            List<ProgressEntry> entries = new ArrayList<>();
+            drainUser(userId, entries);
+            if (!write(entries)) {
+                throw new IllegalStateException("Could not write buffered completions of user " + userId);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void flushAll() {
+        flushAllBatches();
+    }
+
+    // Takes the lock per batch, so a progress read waits for at most one batch write
+    private boolean flushAllBatches() {
+        while (depth.get() > 0) {
+            flushLock.lock();
+            try {
+                List<ProgressEntry> entries = new ArrayList<>(batchSize);
+                for (String userId : pending.keySet()) {
+                    drainUser(userId, entries);
+                    if (entries.size() >= batchSize) {
+                        break;
+                    }
+                }
+                if (entries.isEmpty()) {
+                    return true;
+                }
+                if (!write(entries)) {
+                    return false;
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    // Read from the same meters that are published to /actuator/prometheus
+    public BufferStats getStats() {
+        return new BufferStats(
+            enabled,
+            depth.get(),
+            capacity,
+            flushTimer.count(),
+            (long) flushedEntries.count(),
+            (long) failedFlushes.count(),
+            flushTimer.max(TimeUnit.MILLISECONDS),
+            flushTimer.mean(TimeUnit.MILLISECONDS));
+    }
+
+    private void flushQuietly() {
+        try {
+            flushAll();
+        } catch (Exception e) {
+            log.error("Progress write-behind flush failed", e);
+        }
+    }
+
+    private void add(String userId, Long lessonId) {
+        pending.compute(userId, (user, lessons) -> {
+            Set<Long> set = lessons != null ? lessons : new HashSet<>();
+            if (set.add(lessonId)) {
+                depth.incrementAndGet();
+            }
+            return set;
+        });
+    }
+
+    private void drainUser(String userId, List<ProgressEntry> entries) {
+        Set<Long> lessons = pending.remove(userId);
+        if (lessons == null) {
+            return;
+        }
+        depth.addAndGet(-lessons.size());
+        for (Long lessonId : lessons) {
+            entries.add(new ProgressEntry(userId, lessonId));
+        }
+    }
+
+    private boolean write(List<ProgressEntry> entries) {
+        Timer.Sample sample = Timer.start();
+        try {
+            for (int i = 0; i < entries.size(); i += batchSize) {
+                BatchProgressResult result = progressBatchService
+                    .recordCompletions(entries.subList(i, Math.min(entries.size(), i + batchSize)));
+                if (!result.getUnknownLessons().isEmpty()) {
+                    log.warn("Dropped buffered completions for unknown lessons {}", result.getUnknownLessons());
+                }
+            }
+            flushedEntries.increment(entries.size());
+            return true;
+        } catch (RuntimeException e) {
+            // Writes are idempotent, so the entries go back into the buffer for the next flush
+            failedFlushes.increment();
+            entries.forEach(entry -> add(entry.getUserId(), entry.getLessonId()));
+            log.error("Failed to flush {} buffered completions", entries.size(), e);
+            return false;
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.IndexSource;
+import com.example.miniLMS.dto.SearchHit;
+import com.example.miniLMS.dto.SearchIndexStats;
+import com.example.miniLMS.entity.LessonBody;
+import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.repository.LessonBodyRepository;
+import com.example.miniLMS.repository.LessonRepository;
+import com.example.miniLMS.repository.ModuleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over course titles and descriptions, module titles and summaries,
+ * and lesson titles and TEXT bodies.
+ *
+ * <p>Terms live in a sorted map, so a prefix query is a range scan over the dictionary. Each
+ * term maps to a compact postings list of document keys and weights. Memory is bounded by
+ * indexing at most {@code search.max-terms-per-document} terms (the highest weighted ones) of
+ * at most {@code search.max-text-length} characters of text per document, and by
+ * {@code search.max-postings} over the whole index; documents beyond it are not indexed.
+ *
+ * <p>The index is built in the background at startup and updated after commit whenever a
+ * course, module or lesson is created.
+ */
+@Service
+@Timed("lms.service")
+@Slf4j
+public class SearchIndexService {
+    public enum DocumentType { COURSE, MODULE, LESSON }
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int MAX_TERM_LENGTH = 40;
+    // Bounds the work of short prefixes such as "a": only the completions found in the most documents are matched
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final double PREFIX_MATCH_FACTOR = 0.7;
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float TEXT_WEIGHT = 1.0f;
+    private static final Pattern MARKUP = Pattern.compile("<[^>]*>|&[a-zA-Z#0-9]+;");
+    private static final Set<String> STOP_WORDS = Set.of(
+        "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on",
+        "or", "that", "the", "this", "to", "was", "with");
+
+    private final CourseRepository courseRepository;
+    private final ModuleRepository moduleRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonBodyRepository lessonBodyRepository;
+
+    private final boolean enabled;
+    private final int maxTermsPerDocument;
+    private final int maxTextLength;
+    private final long maxPostings;
+    private final boolean virtualThreads;
+
+    private final ConcurrentSkipListMap<String, Postings> dictionary = new ConcurrentSkipListMap<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final AtomicLong postingCount = new AtomicLong();
+    private final AtomicLong termCharacters = new AtomicLong();
+    private final AtomicLong skippedDocuments = new AtomicLong();
+    private volatile boolean ready;
+    private volatile long buildMillis;
+
+    public SearchIndexService(
+            CourseRepository courseRepository,
+            ModuleRepository moduleRepository,
+            LessonRepository lessonRepository,
+            LessonBodyRepository lessonBodyRepository,
+            @Value("${search.enabled:true}") boolean enabled,
+            @Value("${search.max-terms-per-document:256}") int maxTermsPerDocument,
+            @Value("${search.max-text-length:100000}") int maxTextLength,
+            @Value("${search.max-postings:10000000}") long maxPostings,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.courseRepository = courseRepository;
+        this.moduleRepository = moduleRepository;
+        this.lessonRepository = lessonRepository;
+        this.lessonBodyRepository = lessonBodyRepository;
+        this.enabled = enabled;
+        this.maxTermsPerDocument = maxTermsPerDocument;
+        this.maxTextLength = maxTextLength;
+        this.maxPostings = maxPostings;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        ThreadFactories.named("search-index-build-", virtualThreads).newThread(this::rebuild).start();
+    }
+
+    /**
+     * Indexes every course, module and lesson, reading them in keyset pages.
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        try {
+            indexAll(DocumentType.COURSE, afterId -> courseRepository.findIndexSourcesAfter(afterId, PageRequest.of(0, PAGE_SIZE)));
+            indexAll(DocumentType.MODULE, afterId -> moduleRepository.findIndexSourcesAfter(afterId, PageRequest.of(0, PAGE_SIZE)));
+            indexAll(DocumentType.LESSON, this::lessonPage);
+            buildMillis = (System.nanoTime() - started) / 1_000_000;
+            ready = true;
+            log.info("Search index built in {} ms: {} documents, {} terms, {} postings",
+                buildMillis, documents.size(), dictionary.size(), postingCount.get());
+        } catch (Exception e) {
+            log.error("Building the search index failed", e);
+        }
+    }
+
+    public void indexCourse(Long id, String title, String description) {
+        afterCommit(() -> index(DocumentType.COURSE, new IndexSource(id, title, description, id, null)));
+    }
+
+    public void indexModule(Long id, String title, String summary, Long courseId) {
+        afterCommit(() -> index(DocumentType.MODULE, new IndexSource(id, title, summary, courseId, id)));
+    }
+
+    public void indexLesson(Long id, String title, String text, Long courseId, Long moduleId) {
+        afterCommit(() -> index(DocumentType.LESSON, new IndexSource(id, title, text, courseId, moduleId)));
+    }
+
+    /**
+     * Ranked search. Every query word must match a word of the document, the last one as a
+     * prefix so results follow the user's typing. Scores add up the idf-weighted term weights,
+     * with prefix matches counting less than whole words.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        List<String> tokens = tokenize(query, Integer.MAX_VALUE);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            Map<Long, Double> tokenScores = match(tokens.get(i), i == tokens.size() - 1);
+            scores = scores == null ? tokenScores : intersect(scores, tokenScores);
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Map.Entry<Long, Double> entry = top.poll();
+            Document document = documents.get(entry.getKey());
+            hits.add(new SearchHit(document.type().name(), document.id(), document.title(),
+                document.courseId(), document.moduleId(), entry.getValue()));
+        }
+        hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed());
+        return hits;
+    }
+
+    public SearchIndexStats getStats() {
+        long postings = postingCount.get();
+        // Postings take a long and a float each; terms and documents carry map entry and string overhead
+        long estimatedBytes = postings * 12
+            + termCharacters.get() * 2 + dictionary.size() * 96L
+            + documents.size() * 160L;
+        return new SearchIndexStats(ready, documents.size(), dictionary.size(), postings, estimatedBytes, buildMillis,
+            skippedDocuments.get());
+    }
+
+    private void indexAll(DocumentType type, LongFunction<List<IndexSource>> pageLoader) {
+        long afterId = 0;
+        List<IndexSource> page;
+        do {
+            page = pageLoader.apply(afterId);
+            for (IndexSource source : page) {
+                index(type, source);
+                afterId = source.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private List<IndexSource> lessonPage(long afterId) {
+        List<IndexSource> page = lessonRepository.findIndexSourcesAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+        // Bodies of TEXT lessons created since compression are stored separately
+        List<Long> withoutText = page.stream().filter(source -> source.getText() == null).map(IndexSource::getId).toList();
+        if (!withoutText.isEmpty()) {
+            Map<Long, byte[]> bodies = lessonBodyRepository.findAllById(withoutText).stream()
+                .collect(Collectors.toMap(LessonBody::getLessonId, LessonBody::getGzipContent));
+            for (IndexSource source : page) {
+                byte[] body = bodies.get(source.getId());
+                if (body != null) {
+                    // Only the part that gets indexed is decompressed
+                    source.setText(TextCompression.gunzip(body, maxTextLength));
+                }
+            }
+        }
+        return page;
+    }
+
+    private void afterCommit(Runnable indexing) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexing.run();
+                }
+            });
+        } else {
+            indexing.run();
+        }
+    }
+
+    private void index(DocumentType type, IndexSource source) {
+        long key = documentKey(type, source.getId());
+        Document document = new Document(type, source.getId(), source.getTitle(), source.getCourseId(), source.getModuleId());
+        // The startup build and incremental updates may both see a new document
+        if (documents.putIfAbsent(key, document) != null) {
+            return;
+        }
+
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, source.getTitle(), TITLE_WEIGHT);
+        addField(weights, source.getText(), TEXT_WEIGHT);
+        List<Map.Entry<String, Float>> terms = weights.entrySet().stream()
+            .sorted(Map.Entry.<String, Float>comparingByValue().reversed())
+            .limit(maxTermsPerDocument)
+            .toList();
+        // Reserved up front, so concurrent updates cannot overshoot the bound together
+        if (postingCount.addAndGet(terms.size()) > maxPostings) {
+            postingCount.addAndGet(-terms.size());
+            documents.remove(key);
+            if (skippedDocuments.getAndIncrement() == 0) {
+                log.warn("Search index reached search.max-postings={}, further documents are not indexed", maxPostings);
+            }
+            return;
+        }
+        for (Map.Entry<String, Float> entry : terms) {
+            Postings postings = dictionary.computeIfAbsent(entry.getKey(), term -> {
+                termCharacters.addAndGet(term.length());
+                return new Postings();
+            });
+            postings.add(key, entry.getValue());
+        }
+    }
+
+    private void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        if (text.length() > maxTextLength) {
+            text = text.substring(0, maxTextLength);
+        }
+        Map<String, Long> frequencies = tokenize(MARKUP.matcher(text).replaceAll(" "), Integer.MAX_VALUE).stream()
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        frequencies.forEach((term, frequency) ->
+            weights.merge(term, fieldWeight * (float) (1 + Math.log(frequency)), Float::sum));
+    }
+
+    private Map<Long, Double> match(String token, boolean prefix) {
+        Map<Long, Double> scores = new HashMap<>();
+        double documentCount = Math.max(1, documents.size());
+        Postings exact = dictionary.get(token);
+        if (exact != null) {
+            double idf = Math.log(1 + documentCount / Math.max(1, exact.size()));
+            exact.forEach((key, weight) -> scores.merge(key, weight * idf, Math::max));
+        }
+        if (prefix) {
+            for (Expansion expansion : expansions(token)) {
+                double idf = Math.log(1 + documentCount / Math.max(1, expansion.documents()));
+                expansion.postings().forEach((key, weight) -> scores.merge(key, weight * idf * PREFIX_MATCH_FACTOR, Math::max));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * The longer terms starting with the prefix, at most {@link #MAX_PREFIX_EXPANSIONS} of
+     * them, preferring those found in the most documents. Ranking walks the whole term range
+     * but reads only the size of each postings list.
+     */
+    private List<Expansion> expansions(String prefix) {
+        PriorityQueue<Expansion> top = new PriorityQueue<>(Comparator.comparingInt(Expansion::documents));
+        for (Map.Entry<String, Postings> term : dictionary.subMap(prefix, false, prefix + Character.MAX_VALUE, false).entrySet()) {
+            top.offer(new Expansion(term.getValue(), term.getValue().size()));
+            if (top.size() > MAX_PREFIX_EXPANSIONS) {
+                top.poll();
+            }
+        }
+        return new ArrayList<>(top);
+    }
+
+    private static Map<Long, Double> intersect(Map<Long, Double> left, Map<Long, Double> right) {
+        Map<Long, Double> smaller = left.size() <= right.size() ? left : right;
+        Map<Long, Double> larger = smaller == left ? right : left;
+        Map<Long, Double> result = new HashMap<>();
+        smaller.forEach((key, score) -> {
+            Double other = larger.get(key);
+            if (other != null) {
+                result.put(key, score + other);
+            }
+        });
+        return result;
+    }
+
+    static List<String> tokenize(String text, int limit) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length() && tokens.size() < limit; i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, Math.min(i, start + MAX_TERM_LENGTH));
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Document ids of the three tables overlap, so the type goes into the top bits
+    private static long documentKey(DocumentType type, long id) {
+        return ((long) type.ordinal() << 56) | id;
+    }
+
+    private record Document(DocumentType type, Long id, String title, Long courseId, Long moduleId) {
+    }
+
+    // Postings sizes change while a query runs, so the ranking uses the size read once
+    private record Expansion(Postings postings, int documents) {
+    }
+
+    /**
+     * Document keys and weights of one term in parallel primitive arrays, to avoid an object
+     * per posting.
+     */
+    private static final class Postings {
+        private long[] keys = new long[2];
+        private float[] weights = new float[2];
+        private int size;
+
+        synchronized void add(long key, float weight) {
+            if (size == keys.length) {
+                int capacity = size + (size >> 1) + 1;
+                keys = Arrays.copyOf(keys, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            keys[size] = key;
+            weights[size] = weight;
+            size++;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void forEach(PostingConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(keys[i], weights[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PostingConsumer {
+        void accept(long key, float weight);
+    }
+}
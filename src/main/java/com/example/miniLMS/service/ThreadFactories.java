@@ -0,0 +1,20 @@
+package com.example.miniLMS.service;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for the background work of the services. With
+ * {@code spring.threads.virtual.enabled} set, they create virtual threads like the web tier
+ * does; otherwise daemon platform threads. Either way the executors using them keep their
+ * own bounds.
+ */
+final class ThreadFactories {
+
+    private ThreadFactories() {
+    }
+
+    static ThreadFactory named(String prefix, boolean virtual) {
+        Thread.Builder builder = virtual ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        return builder.name(prefix, 1).factory();
+    }
+}
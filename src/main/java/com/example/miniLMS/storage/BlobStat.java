@@ -0,0 +1,15 @@
+package com.example.miniLMS.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlobStat {
+    private long size;
+    private Instant lastModified;
+}
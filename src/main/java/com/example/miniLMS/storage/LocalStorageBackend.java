@@ -0,0 +1,117 @@
+package com.example.miniLMS.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Stores blobs under {@code file.upload-dir}, fanned out over two directory levels taken from
+ * the key ({@code ab/cd/abcd...}) so no directory grows beyond a few thousand entries. Keys are
+ * content digests, optionally with a suffix, and therefore evenly spread. Other keys, such as
+ * the {@code {timestamp}_{name}} files of older lessons, stay in the flat root.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalStorageBackend implements StorageBackend {
+    private static final Pattern SHARDED_KEY = Pattern.compile("[0-9a-f]{64}(_[A-Za-z0-9]+)?");
+
+    private final Path root;
+
+    public LocalStorageBackend(@Value("${file.upload-dir:./uploads}") String uploadDir) throws IOException {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        moveFlatBlobsIntoShards();
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Source on another file system; copy next to the target first so readers never see a partial file
+            Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(source);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key));
+        channel.position(start);
+        return new BoundedInputStream(Channels.newInputStream(channel), end - start + 1);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            return Optional.of(new BlobStat(attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    Path resolve(String key) {
+        StorageBackend.validateKey(key);
+        if (!SHARDED_KEY.matcher(key).matches()) {
+            return root.resolve(key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    /**
+     * Blobs written before sharding was introduced sit directly in the root; move them once
+     * so lookups never need to probe two locations.
+     */
+    private void moveFlatBlobsIntoShards() throws IOException {
+        int moved = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root,
+                path -> Files.isRegularFile(path) && SHARDED_KEY.matcher(path.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                Path target = resolve(file.getFileName().toString());
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                moved++;
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} blobs into the sharded layout under {}", moved, root);
+        }
+    }
+}
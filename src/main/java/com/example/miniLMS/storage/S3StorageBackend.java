@@ -0,0 +1,163 @@
+package com.example.miniLMS.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores blobs in an S3 compatible bucket, so several application nodes can share them
+ * without a shared file system. {@code storage.s3.endpoint} points the client at another
+ * implementation such as MinIO, which is also how it is run locally.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+@Slf4j
+public class S3StorageBackend implements StorageBackend {
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefix;
+    private final long partSize;
+
+    @Autowired
+    public S3StorageBackend(
+            @Value("${storage.s3.bucket}") String bucket,
+            @Value("${storage.s3.prefix:}") String prefix,
+            @Value("${storage.s3.region:us-east-1}") String region,
+            @Value("${storage.s3.endpoint:}") String endpoint,
+            @Value("${storage.s3.path-style:false}") boolean pathStyle,
+            @Value("${storage.s3.access-key:}") String accessKey,
+            @Value("${storage.s3.secret-key:}") String secretKey,
+            @Value("${storage.s3.part-size-bytes:67108864}") long partSize) {
+        this(buildClient(region, endpoint, pathStyle, accessKey, secretKey), bucket, prefix, partSize);
+    }
+
+    S3StorageBackend(S3Client s3, String bucket, String prefix, long partSize) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.prefix = prefix;
+        // S3 rejects single PUTs above 5 GiB and multipart parts below 5 MiB
+        this.partSize = Math.max(partSize, 5L * 1024 * 1024);
+        log.info("Storing media in bucket {} with prefix '{}'", bucket, prefix);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        if (size <= partSize) {
+            s3.putObject(request -> request.bucket(bucket).key(objectKey(key)), RequestBody.fromFile(source));
+        } else {
+            putMultipart(objectKey(key), source, size);
+        }
+        Files.delete(source);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return s3.getObject(request -> request.bucket(bucket).key(objectKey(key)));
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long end) throws IOException {
+        return s3.getObject(request -> request.bucket(bucket).key(objectKey(key)).range("bytes=" + start + "-" + end));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        s3.deleteObject(request -> request.bucket(bucket).key(objectKey(key)));
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3.headObject(request -> request.bucket(bucket).key(objectKey(key)));
+            return Optional.of(new BlobStat(head.contentLength(), head.lastModified()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            // HEAD responses carry no error body, so a missing key may surface as a bare 404
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        s3.close();
+    }
+
+    private static S3Client buildClient(String region, String endpoint, boolean pathStyle, String accessKey, String secretKey) {
+        AwsCredentialsProvider credentials = StringUtils.hasText(accessKey)
+            ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+            : DefaultCredentialsProvider.create();
+        S3ClientBuilder builder = S3Client.builder()
+            .region(Region.of(region))
+            .credentialsProvider(credentials)
+            .forcePathStyle(pathStyle);
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    private String objectKey(String key) {
+        StorageBackend.validateKey(key);
+        return prefix + key;
+    }
+
+    private void putMultipart(String objectKey, Path source, long size) throws IOException {
+        String uploadId = s3.createMultipartUpload(request -> request.bucket(bucket).key(objectKey)).uploadId();
+        try (FileChannel channel = FileChannel.open(source)) {
+            List<CompletedPart> parts = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += partSize) {
+                int partNumber = parts.size() + 1;
+                long length = Math.min(partSize, size - offset);
+                channel.position(offset);
+                // The SDK must not close the channel between parts
+                InputStream part = new BoundedInputStream(Channels.newInputStream(channel), length) {
+                    @Override
+                    public void close() {
+                    }
+                };
+                String etag = s3.uploadPart(
+                    request -> request.bucket(bucket).key(objectKey).uploadId(uploadId).partNumber(partNumber),
+                    RequestBody.fromInputStream(part, length)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+            }
+            s3.completeMultipartUpload(request -> request.bucket(bucket).key(objectKey).uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (IOException | RuntimeException e) {
+            s3.abortMultipartUpload(request -> request.bucket(bucket).key(objectKey).uploadId(uploadId));
+            throw e;
+        }
+    }
+}
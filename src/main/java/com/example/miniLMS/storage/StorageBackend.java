@@ -0,0 +1,44 @@
+package com.example.miniLMS.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where media blobs live. Implementations are selected with the {@code storage.backend}
+ * property; keys are opaque, flat strings without path separators.
+ */
+public interface StorageBackend {
+
+    /**
+     * Stores the given local file under the key. The source may be moved rather than copied,
+     * so callers must not use it afterwards.
+     */
+    void put(String key, Path source) throws IOException;
+
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Opens the bytes from start to end, both inclusive.
+     */
+    InputStream getRange(String key, long start, long end) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    Optional<BlobStat> stat(String key) throws IOException;
+
+    /**
+     * The file backing the key, if it lives on the local file system, so it can be handed to
+     * the container's sendfile support.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    static void validateKey(String key) {
+        if (key == null || key.isBlank() || key.contains("/") || key.contains("\\") || key.contains("..")) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+    }
+}
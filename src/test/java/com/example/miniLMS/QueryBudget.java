@@ -0,0 +1,43 @@
+package com.example.miniLMS;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails a test when a request prepares more SQL statements than its budget, to catch N+1
+ * queries. Counts come from Hibernate statistics (enabled in the test properties), which are
+ * global, so nothing else may touch the database while a request is measured.
+ */
+public class QueryBudget {
+    private final Statistics statistics;
+
+    public QueryBudget(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Performs the request and asserts it prepared at most {@code maxStatements} statements.
+     */
+    public ResultActions perform(MockMvc mockMvc, RequestBuilder request, long maxStatements) throws Exception {
+        statistics.clear();
+        ResultActions result = mockMvc.perform(request);
+        long statements = statistics.getPrepareStatementCount();
+        MockHttpServletRequest performed = result.andReturn().getRequest();
+        assertThat(statements)
+            .withFailMessage("%s %s prepared %d statements, the budget is %d (entity loads %d, collection loads %d, queries %s)",
+                performed.getMethod(), performed.getRequestURI(), statements, maxStatements,
+                statistics.getEntityLoadCount(), statistics.getCollectionLoadCount(),
+                Arrays.toString(statistics.getQueries()))
+            .isLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+}
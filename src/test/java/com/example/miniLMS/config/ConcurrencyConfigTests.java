@@ -0,0 +1,89 @@
+package com.example.miniLMS.config;
+
+import com.example.miniLMS.repository.CourseRepository;
+import com.example.miniLMS.service.SearchIndexService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@AutoConfigureMockMvc
+class ConcurrencyConfigTests {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private SearchIndexService searchIndexService;
+
+	@Test
+	void virtualThreadsShortenPoolWait() throws Exception {
+		assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+		assertThat(((HikariDataSource) dataSource).getConnectionTimeout()).isEqualTo(5000);
+
+		// Catalog reads still serialize lazy collections through open-session-in-view
+		mockMvc.perform(get("/courses")).andExpect(status().isOk());
+		mockMvc.perform(get("/lessons/-1/content")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void streamingPathsRunWithoutOpenSessionInView() throws Exception {
+		// The index build at startup is the only other user of the pool
+		await().until(() -> searchIndexService.getStats().isReady());
+		// Both probes run a query first; only the open-session-in-view one keeps its EntityManager afterwards
+		mockMvc.perform(get("/osiv-probe"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.entityManagerBound").value(true))
+			.andExpect(jsonPath("$.activeConnections").value(1));
+		mockMvc.perform(get("/media/osiv-probe"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.entityManagerBound").value(false))
+			.andExpect(jsonPath("$.activeConnections").value(0));
+	}
+
+	@TestConfiguration
+	static class ProbeConfig {
+
+		@RestController
+		static class OsivProbeController {
+			private final EntityManagerFactory entityManagerFactory;
+			private final CourseRepository courseRepository;
+			private final HikariDataSource dataSource;
+
+			OsivProbeController(EntityManagerFactory entityManagerFactory, CourseRepository courseRepository, DataSource dataSource) {
+				this.entityManagerFactory = entityManagerFactory;
+				this.courseRepository = courseRepository;
+				this.dataSource = (HikariDataSource) dataSource;
+			}
+
+			// The second path matches ConcurrencyConfig's "/media/**" streaming pattern
+			@GetMapping({"/osiv-probe", "/media/osiv-probe"})
+			Map<String, Object> probe() {
+				courseRepository.count();
+				return Map.of(
+					"entityManagerBound", TransactionSynchronizationManager.hasResource(entityManagerFactory),
+					"activeConnections", dataSource.getHikariPoolMXBean().getActiveConnections());
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.miniLMS.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsConfigTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void exposesRequestServiceStatementAndStorageMetrics() throws Exception {
+		mockMvc.perform(post("/courses")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"title\":\"Metrics course\"}"))
+			.andExpect(status().isCreated());
+		mockMvc.perform(get("/courses/catalog")).andExpect(status().isOk());
+		// The file is stored before the missing course is noticed
+		byte[] content = UUID.randomUUID().toString().getBytes();
+		mockMvc.perform(multipart("/courses/-1/image")
+			.file(new MockMultipartFile("file", "metrics.txt", "text/plain", content)));
+
+		String metrics = mockMvc.perform(get("/actuator/prometheus"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+
+		assertThat(metrics)
+			.contains("http_server_requests_seconds_bucket{")
+			.contains("lms_service_seconds_count{class=\"com.example.miniLMS.service.CourseService\"")
+			.contains("lms_http_statements_count{method=\"GET\",uri=\"/courses/catalog\"}")
+			.contains("lms_storage_uploaded_bytes_total{result=\"stored\"}")
+			.contains("lms_progress_buffer_depth")
+			.contains("lms_progress_buffer_flush_seconds_count")
+			.contains("lms_progress_buffer_flush_failures_total")
+			.contains("hikaricp_connections_pending");
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.miniLMS.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "catalog.import.batch-size=2")
+@AutoConfigureMockMvc
+class CatalogControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void importedCatalogIsExportedInTheSameShape() throws Exception {
+		String marker = UUID.randomUUID().toString();
+		String catalog = String.join("\n",
+			"{\"type\":\"course\",\"title\":\"Course " + marker + "\",\"description\":\"Imported\"}",
+			"{\"type\":\"module\",\"title\":\"Module one\",\"summary\":\"First\"}",
+			"{\"type\":\"lesson\",\"title\":\"Reading\",\"lessonType\":\"TEXT\",\"content\":\"Plain text " + marker + "\"}",
+			"{\"type\":\"lesson\",\"title\":\"Video\",\"lessonType\":\"VIDEO\",\"content\":\"https://example.com/v.mp4\"}",
+			"{\"type\":\"module\",\"title\":\"Module two\"}",
+			"{\"type\":\"lesson\",\"title\":\"Slides\",\"lessonType\":\"PDF\",\"content\":\"https://example.com/s.pdf\"}");
+
+		mockMvc.perform(post("/catalog/import").contentType(CatalogController.NDJSON).content(catalog))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.courses").value(1))
+			.andExpect(jsonPath("$.modules").value(2))
+			.andExpect(jsonPath("$.lessons").value(3));
+
+		String export = mockMvc.perform(get("/catalog/export"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		List<JsonNode> records = new ArrayList<>();
+		boolean inCourse = false;
+		for (String line : export.split("\n")) {
+			JsonNode record = objectMapper.readTree(line);
+			if ("course".equals(record.get("type").asText())) {
+				inCourse = record.get("title").asText().equals("Course " + marker);
+			}
+			if (inCourse) {
+				records.add(record);
+			}
+		}
+
+		assertThat(records).extracting(record -> record.get("title").asText())
+			.containsExactly("Course " + marker, "Module one", "Reading", "Video", "Module two", "Slides");
+		assertThat(records.get(2).get("content").asText()).isEqualTo("Plain text " + marker);
+		assertThat(records.get(3).get("contentType").asText()).isEqualTo("video/mp4");
+	}
+
+	@Test
+	void importStopsAtTheFirstInvalidLine() throws Exception {
+		String catalog = String.join("\n",
+			"{\"type\":\"course\",\"title\":\"Partial import\"}",
+			"{\"type\":\"module\",\"title\":\"Module\"}",
+			"{\"type\":\"lesson\",\"title\":\"Lesson\",\"lessonType\":\"TEXT\",\"content\":\"Text\"}",
+			"{\"type\":\"lesson\",\"title\":\"Empty\",\"lessonType\":\"TEXT\"}");
+
+		mockMvc.perform(post("/catalog/import").contentType(CatalogController.NDJSON).content(catalog))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.line").value(4))
+			.andExpect(jsonPath("$.error").value("Lesson content cannot be empty"))
+			// The first batch of two lines was committed before the invalid line was read
+			.andExpect(jsonPath("$.courses").value(1))
+			.andExpect(jsonPath("$.modules").value(1))
+			.andExpect(jsonPath("$.lessons").value(0));
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.service.CourseService;
+import com.example.miniLMS.service.LessonService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CourseControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Test
+	void conditionalGetFollowsCourseVersion() throws Exception {
+		Course course = new Course();
+		course.setTitle("Conditional course");
+		course = courseService.createCourse(course);
+
+		String etag = mockMvc.perform(get("/courses/{id}", course.getId()))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotNull();
+
+		mockMvc.perform(get("/courses/{id}", course.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified());
+
+		Module module = new Module();
+		module.setTitle("New module");
+		courseService.addModuleToCourse(course.getId(), module);
+
+		String newEtag = mockMvc.perform(get("/courses/{id}", course.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(newEtag).isNotEqualTo(etag);
+	}
+
+	@Test
+	void progressExportStreamsOneRowPerUserAndLesson() throws Exception {
+		Course course = new Course();
+		course.setTitle("Exported course");
+		course = courseService.createCourse(course);
+		Module module = new Module();
+		module.setTitle("Module, with comma");
+		module = courseService.addModuleToCourse(course.getId(), module);
+		Lesson first = new Lesson();
+		first.setTitle("First");
+		first.setType(LessonType.TEXT);
+		first.setContent("Text");
+		first = lessonService.createLesson(module.getId(), first);
+		Lesson second = new Lesson();
+		second.setTitle("Second \"quoted\"");
+		second.setType(LessonType.TEXT);
+		second.setContent("Text");
+		second = lessonService.createLesson(module.getId(), second);
+		lessonService.markLessonComplete(first.getId(), "alice");
+		lessonService.markLessonComplete(second.getId(), "alice");
+		lessonService.markLessonComplete(first.getId(), "bob");
+
+		String csv = mockMvc.perform(get("/courses/{id}/progress/export", course.getId()))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+			.andReturn().getResponse().getContentAsString();
+		String moduleColumns = module.getId() + ",\"Module, with comma\",";
+		assertThat(csv.split("\n")).containsExactly(
+			"user_id,module_id,module_title,lesson_id,lesson_title,completed",
+			"alice," + moduleColumns + first.getId() + ",First,true",
+			"bob," + moduleColumns + first.getId() + ",First,true",
+			"alice," + moduleColumns + second.getId() + ",\"Second \"\"quoted\"\"\",true");
+
+		String jsonl = mockMvc.perform(get("/courses/{id}/progress/export", course.getId()).param("format", "jsonl"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		assertThat(jsonl.split("\n")).hasSize(3);
+		assertThat(jsonl.split("\n")[0]).contains("\"userId\":\"alice\"", "\"lessonId\":" + first.getId());
+
+		mockMvc.perform(get("/courses/{id}/progress/export", course.getId()).param("format", "xml"))
+			.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/courses/{id}/progress/export", Long.MAX_VALUE))
+			.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void progressStreamPushesCompletedLessons() throws Exception {
+		Course course = new Course();
+		course.setTitle("Streamed course");
+		course = courseService.createCourse(course);
+		Module module = new Module();
+		module.setTitle("Streamed module");
+		module = courseService.addModuleToCourse(course.getId(), module);
+		Lesson lesson = new Lesson();
+		lesson.setTitle("Streamed lesson");
+		lesson.setType(LessonType.TEXT);
+		lesson.setContent("Text");
+		lesson = lessonService.createLesson(module.getId(), lesson);
+
+		MockHttpServletResponse response = mockMvc.perform(get("/courses/{id}/progress/stream", course.getId())
+				.param("userId", "erin"))
+			.andExpect(request().asyncStarted())
+			.andReturn().getResponse();
+		await().untilAsserted(() -> assertThat(response.getContentAsString())
+			.contains("event:progress", "\"userId\":\"erin\",\"progress\":0.0"));
+
+		lessonService.markLessonComplete(lesson.getId(), "erin");
+		await().untilAsserted(() -> assertThat(response.getContentAsString())
+			.contains("\"userId\":\"erin\",\"progress\":1.0"));
+
+		mockMvc.perform(get("/courses/{id}/progress/stream", Long.MAX_VALUE).param("userId", "erin"))
+			.andExpect(status().isNotFound());
+	}
+}
@@ -0,0 +1,197 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.service.CourseService;
+import com.example.miniLMS.service.LessonService;
+import com.example.miniLMS.service.MediaBlobService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LessonControllerTests {
+
+	private static final byte[] PDF = "%PDF-1.4 0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Autowired
+	private MediaBlobService mediaBlobService;
+
+	private Long lessonId;
+
+	private Long moduleId;
+
+	@BeforeEach
+	void uploadLesson() throws Exception {
+		Course course = new Course();
+		course.setTitle("Media course");
+		course = courseService.createCourse(course);
+		Module module = new Module();
+		module.setTitle("Media module");
+		module = courseService.addModuleToCourse(course.getId(), module);
+		moduleId = module.getId();
+
+		String body = mockMvc.perform(multipart("/lessons/modules/{moduleId}", module.getId())
+				.file(new MockMultipartFile("file", "slides.pdf", "application/pdf", PDF))
+				.param("title", "Slides")
+				.param("type", "PDF"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		JsonNode lesson = objectMapper.readTree(body);
+		lessonId = lesson.get("id").asLong();
+	}
+
+	@Test
+	void servesSingleRangeAsPartialContent() throws Exception {
+		mockMvc.perform(get("/lessons/{id}/content", lessonId).header(HttpHeaders.RANGE, "bytes=0-3"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-3/" + PDF.length))
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+			.andExpect(content().bytes("%PDF".getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	void servesWholeFileInline() throws Exception {
+		String disposition = mockMvc.perform(get("/lessons/{id}/content", lessonId))
+			.andExpect(status().isOk())
+			.andExpect(content().bytes(PDF))
+			.andReturn().getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION);
+		assertThat(disposition).startsWith("inline");
+	}
+
+	@Test
+	void rejectsUnsatisfiableRange() throws Exception {
+		mockMvc.perform(get("/lessons/{id}/content", lessonId)
+				.requestAttr("org.apache.tomcat.sendfile.support", true)
+				.header(HttpHeaders.RANGE, "bytes=1000-"))
+			.andExpect(status().isRequestedRangeNotSatisfiable());
+	}
+
+	@Test
+	void handsRangeToContainerSendfile() throws Exception {
+		mockMvc.perform(get("/lessons/{id}/content", lessonId)
+				.requestAttr("org.apache.tomcat.sendfile.support", true)
+				.header(HttpHeaders.RANGE, "bytes=4-"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-" + (PDF.length - 1) + "/" + PDF.length))
+			.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, PDF.length - 4))
+			.andExpect(request().attribute("org.apache.tomcat.sendfile.start", 4L))
+			.andExpect(request().attribute("org.apache.tomcat.sendfile.end", (long) PDF.length));
+	}
+
+	@Test
+	void answersNotModifiedForMatchingContentHash() throws Exception {
+		String etag = mockMvc.perform(get("/lessons/{id}/content", lessonId))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).hasSize(66);
+
+		mockMvc.perform(get("/lessons/{id}/content", lessonId).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified())
+			.andExpect(content().bytes(new byte[0]));
+	}
+
+	@Test
+	void storesIdenticalUploadsOnceAndServesThemByDigest() throws Exception {
+		String body = mockMvc.perform(multipart("/lessons/modules/{moduleId}", moduleId)
+				.file(new MockMultipartFile("file", "copy.pdf", "application/pdf", PDF))
+				.param("title", "Same slides")
+				.param("type", "PDF"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		JsonNode copy = objectMapper.readTree(body);
+		String digest = lessonService.getLessonById(lessonId).orElseThrow().getContent();
+
+		assertThat(copy.get("content").asText()).isEqualTo(digest);
+		assertThat(mediaBlobService.getMediaBlob(digest).orElseThrow().getReferenceCount()).isGreaterThanOrEqualTo(2);
+
+		mockMvc.perform(get("/media/{digest}", digest))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+			.andExpect(content().bytes(PDF));
+	}
+
+	@Test
+	void servesDetectedContentTypeRecordedAtUpload() throws Exception {
+		byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0};
+		String body = mockMvc.perform(multipart("/lessons/modules/{moduleId}", moduleId)
+				.file(new MockMultipartFile("file", "diagram.jpg", "image/jpeg", png))
+				.param("title", "Diagram")
+				.param("type", "IMAGE"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		JsonNode image = objectMapper.readTree(body);
+
+		assertThat(image.get("contentType").asText()).isEqualTo("image/png");
+		assertThat(image.get("contentLength").asLong()).isEqualTo(png.length);
+		mockMvc.perform(get("/lessons/{id}/content", image.get("id").asLong()))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+			.andExpect(content().bytes(png));
+	}
+
+	@Test
+	void servesTextBodyGzipEncodedAsStored() throws Exception {
+		String text = "<h1>Lesson</h1>" + "<p>Compressible paragraph.</p>".repeat(200);
+		String body = mockMvc.perform(multipart("/lessons/modules/{moduleId}", moduleId)
+				.param("title", "Reading")
+				.param("type", "TEXT")
+				.param("content", text))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		long textLessonId = objectMapper.readTree(body).get("id").asLong();
+
+		MockHttpServletResponse gzipped = mockMvc.perform(get("/lessons/{id}/content", textLessonId)
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+			.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+			.andReturn().getResponse();
+		assertThat(gzipped.getContentAsByteArray().length).isLessThan(text.length() / 10);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(text);
+		}
+
+		MockHttpServletResponse plain = mockMvc.perform(get("/lessons/{id}/content", textLessonId)
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+			.andReturn().getResponse();
+		assertThat(plain.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(text);
+		assertThat(plain.getHeader(HttpHeaders.ETAG)).isNotEqualTo(gzipped.getHeader(HttpHeaders.ETAG));
+	}
+}
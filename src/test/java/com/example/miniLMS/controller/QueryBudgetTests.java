@@ -0,0 +1,109 @@
+package com.example.miniLMS.controller;
+
+import com.example.miniLMS.QueryBudget;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.service.CourseService;
+import com.example.miniLMS.service.LessonService;
+import com.example.miniLMS.service.SearchIndexService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets of the read endpoints. Each runs against a small and a larger course and
+ * must stay within the same budget, so a query per module or lesson fails the build.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Autowired
+	private SearchIndexService searchIndexService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private QueryBudget queryBudget;
+
+	@BeforeEach
+	void setUp() {
+		queryBudget = new QueryBudget(entityManagerFactory);
+		// The startup index build reads the database in the background
+		await().until(() -> searchIndexService.getStats().isReady());
+	}
+
+	@ParameterizedTest
+	@CsvSource({"1, 1", "6, 5"})
+	void catalogReadsStayWithinBudget(int modules, int lessonsPerModule) throws Exception {
+		Course course = createCourse(modules, lessonsPerModule);
+		Long courseId = course.getId();
+		Long moduleId = course.getModules().get(0).getId();
+		Long lessonId = course.getModules().get(0).getLessons().get(0).getId();
+		lessonService.markLessonComplete(lessonId, "budget-user");
+
+		queryBudget.perform(mockMvc, get("/courses/{id}/outline", courseId), 3).andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/courses/{id}", courseId), 3).andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/modules/{id}/outline", moduleId), 3).andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/modules/{id}", moduleId), 3).andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/courses/catalog").param("after", String.valueOf(courseId - 1)), 1)
+			.andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/courses/{id}/progress/details", courseId).param("userId", "budget-user"), 2)
+			.andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/modules/{id}/progress", moduleId).param("userId", "budget-user"), 1)
+			.andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/lessons/{id}/content", lessonId), 2).andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/users/{userId}/progress", "budget-user"), 1).andExpect(status().isOk());
+		queryBudget.perform(mockMvc, get("/users/{userId}/progress", "budget-user").param("includeModules", "true"), 2)
+			.andExpect(status().isOk());
+		// Courses, modules, lessons and lesson bodies, one page each in the test catalog
+		queryBudget.perform(mockMvc, get("/catalog/export"), 4).andExpect(status().isOk());
+	}
+
+	private Course createCourse(int modules, int lessonsPerModule) {
+		Course course = new Course();
+		course.setTitle("Budget course");
+		course = courseService.createCourse(course);
+		List<Module> created = new ArrayList<>();
+		for (int m = 0; m < modules; m++) {
+			Module module = new Module();
+			module.setTitle("Budget module " + m);
+			module = courseService.addModuleToCourse(course.getId(), module);
+			List<Lesson> lessons = new ArrayList<>();
+			for (int l = 0; l < lessonsPerModule; l++) {
+				Lesson lesson = new Lesson();
+				lesson.setTitle("Budget lesson " + l);
+				lesson.setType(LessonType.TEXT);
+				lesson.setContent("Budget text " + l);
+				lessons.add(lessonService.createLesson(module.getId(), lesson));
+			}
+			module.setLessons(lessons);
+			created.add(module);
+		}
+		course.setModules(created);
+		return course;
+	}
+}
@@ -0,0 +1,156 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.UploadInitRequest;
+import com.example.miniLMS.dto.UploadStatus;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import com.example.miniLMS.entity.UploadSession;
+import com.example.miniLMS.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest
+class ChunkedUploadServiceTests {
+
+	private static final byte[] VIDEO = new byte[200_000];
+
+	static {
+		for (int i = 0; i < VIDEO.length; i++) {
+			VIDEO[i] = (byte) (i * 31);
+		}
+	}
+
+	@Autowired
+	private ChunkedUploadService chunkedUploadService;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@Autowired
+	private UploadSessionRepository uploadSessionRepository;
+
+	@MockitoSpyBean
+	private LessonService lessonService;
+
+	private Long moduleId;
+
+	@BeforeEach
+	void createModule() {
+		Course course = new Course();
+		course.setTitle("Upload course");
+		course = courseService.createCourse(course);
+		Module module = new Module();
+		module.setTitle("Upload module");
+		moduleId = courseService.addModuleToCourse(course.getId(), module).getId();
+	}
+
+	@Test
+	void resumesFromReportedOffsetAndVerifiesChecksum() throws Exception {
+		UploadStatus status = chunkedUploadService.init(new UploadInitRequest(
+			moduleId, "Lecture", LessonType.VIDEO, "lecture.mp4", VIDEO.length, FileStorageService.sha256Hex(VIDEO)));
+
+		chunkedUploadService.appendChunk(status.getUploadId(), 0, chunk(0, 70_000));
+		// A retried chunk after a lost response is rejected with the offset to resume from
+		assertThatThrownBy(() -> chunkedUploadService.appendChunk(status.getUploadId(), 0, chunk(0, 70_000)))
+			.isInstanceOf(IllegalStateException.class);
+		assertThat(chunkedUploadService.getStatus(status.getUploadId()).getOffset()).isEqualTo(70_000);
+
+		chunkedUploadService.appendChunk(status.getUploadId(), 70_000, chunk(70_000, VIDEO.length));
+		Lesson lesson = chunkedUploadService.complete(status.getUploadId());
+
+		assertThat(lesson.getContentHash()).isEqualTo(FileStorageService.sha256Hex(VIDEO));
+		assertThat(fileStorageService.loadFileAsResource(lesson.getContent()).getContentAsByteArray()).isEqualTo(VIDEO);
+		assertThatThrownBy(() -> chunkedUploadService.getStatus(status.getUploadId()))
+			.isInstanceOf(NoSuchElementException.class);
+	}
+
+	@Test
+	void rejectsOversizedChunksAndMismatchingChecksum() {
+		UploadStatus status = chunkedUploadService.init(new UploadInitRequest(
+			moduleId, "Lecture", LessonType.VIDEO, "lecture.mp4", 1_000, "0".repeat(64)));
+
+		assertThatThrownBy(() -> chunkedUploadService.appendChunk(status.getUploadId(), 0, chunk(0, 1_001)))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> chunkedUploadService.complete(status.getUploadId()))
+			.isInstanceOf(IllegalStateException.class);
+
+		chunkedUploadService.appendChunk(status.getUploadId(), 0, chunk(0, 1_000));
+		assertThatThrownBy(() -> chunkedUploadService.complete(status.getUploadId()))
+			.hasMessageContaining("Checksum mismatch");
+		assertThat(fileStorageService.getPartialUploadPath(status.getUploadId())).doesNotExist();
+	}
+
+	@Test
+	void rehashesWhenThePartialFileGrewElsewhere() throws Exception {
+		UploadStatus status = chunkedUploadService.init(new UploadInitRequest(
+			moduleId, "Lecture", LessonType.VIDEO, "lecture.mp4", VIDEO.length, FileStorageService.sha256Hex(VIDEO)));
+
+		chunkedUploadService.appendChunk(status.getUploadId(), 0, chunk(0, 50_000));
+		// A chunk written by another instance sharing the staging directory
+		Files.write(fileStorageService.getPartialUploadPath(status.getUploadId()),
+			Arrays.copyOfRange(VIDEO, 50_000, 120_000), StandardOpenOption.APPEND);
+		chunkedUploadService.appendChunk(status.getUploadId(), 120_000, chunk(120_000, VIDEO.length));
+
+		assertThat(chunkedUploadService.complete(status.getUploadId()).getContentHash())
+			.isEqualTo(FileStorageService.sha256Hex(VIDEO));
+	}
+
+	@Test
+	void completionCanBeRetriedAfterTheFileWasStored() {
+		UploadStatus status = chunkedUploadService.init(new UploadInitRequest(
+			moduleId, "Retried", LessonType.VIDEO, "retried.mp4", VIDEO.length, null));
+		chunkedUploadService.appendChunk(status.getUploadId(), 0, chunk(0, VIDEO.length));
+
+		doThrow(new RuntimeException("Database unavailable")).when(lessonService).createLesson(eq(moduleId), any());
+		assertThatThrownBy(() -> chunkedUploadService.complete(status.getUploadId()))
+			.hasMessage("Database unavailable");
+		reset(lessonService);
+		assertThat(chunkedUploadService.getStatus(status.getUploadId()).getOffset()).isEqualTo(VIDEO.length);
+
+		Lesson lesson = chunkedUploadService.complete(status.getUploadId());
+		assertThat(lesson.getContentHash()).isEqualTo(FileStorageService.sha256Hex(VIDEO));
+		assertThat(lesson.getContentLength()).isEqualTo((long) VIDEO.length);
+		assertThatThrownBy(() -> chunkedUploadService.getStatus(status.getUploadId()))
+			.isInstanceOf(NoSuchElementException.class);
+	}
+
+	@Test
+	void refusesUploadsStagedOnAnotherInstance() {
+		UploadStatus status = chunkedUploadService.init(new UploadInitRequest(
+			moduleId, "Elsewhere", LessonType.VIDEO, "elsewhere.mp4", 1_000, null));
+		UploadSession session = uploadSessionRepository.findById(status.getUploadId()).orElseThrow();
+		session.setNode("other-instance");
+		uploadSessionRepository.save(session);
+
+		assertThatThrownBy(() -> chunkedUploadService.appendChunk(status.getUploadId(), 0, chunk(0, 1_000)))
+			.isInstanceOf(MisdirectedUploadException.class)
+			.extracting("node").isEqualTo("other-instance");
+		assertThatThrownBy(() -> chunkedUploadService.complete(status.getUploadId()))
+			.isInstanceOf(MisdirectedUploadException.class);
+	}
+
+	private static ByteArrayInputStream chunk(int from, int to) {
+		return new ByteArrayInputStream(Arrays.copyOfRange(VIDEO, from, to));
+	}
+}
@@ -0,0 +1,145 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.CatalogPage;
+import com.example.miniLMS.dto.CourseOutline;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class CourseServiceTests {
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Autowired
+	private ModuleService moduleService;
+
+	@Test
+	void catalogIsPagedByCursorWithCounts() {
+		Long start = createCourse("Cursor start").getId();
+		Course first = createCourse("Catalog one");
+		Course second = createCourse("Catalog two");
+		createCourse("Catalog three");
+
+		Module module = new Module();
+		module.setTitle("Catalog module");
+		module = courseService.addModuleToCourse(first.getId(), module);
+		for (int i = 0; i < 3; i++) {
+			Lesson lesson = new Lesson();
+			lesson.setTitle("Lesson " + i);
+			lesson.setType(LessonType.TEXT);
+			lesson.setContent("Body " + i);
+			lessonService.createLesson(module.getId(), lesson);
+		}
+
+		CatalogPage page = courseService.getCatalogPage(start, 2);
+		assertThat(page.getItems()).extracting("title").containsExactly("Catalog one", "Catalog two");
+		assertThat(page.getItems().get(0).getModuleCount()).isEqualTo(1);
+		assertThat(page.getItems().get(0).getLessonCount()).isEqualTo(3);
+		assertThat(page.getItems().get(1).getLessonCount()).isZero();
+		assertThat(page.getNextCursor()).isEqualTo(second.getId());
+
+		CatalogPage last = courseService.getCatalogPage(page.getNextCursor(), 2);
+		assertThat(last.getItems()).extracting("title").containsExactly("Catalog three");
+		assertThat(last.getNextCursor()).isNull();
+	}
+
+	@Test
+	void outlineHasLessonHeadersAndCourseGraphIsInitialized() {
+		Course course = createCourse("Outline course");
+		Module first = new Module();
+		first.setTitle("First");
+		first = courseService.addModuleToCourse(course.getId(), first);
+		Module second = new Module();
+		second.setTitle("Second");
+		courseService.addModuleToCourse(course.getId(), second);
+		Lesson lesson = new Lesson();
+		lesson.setTitle("Intro");
+		lesson.setType(LessonType.TEXT);
+		lesson.setContent("Long body");
+		lessonService.createLesson(first.getId(), lesson);
+
+		CourseOutline outline = courseService.getCourseOutline(course.getId()).orElseThrow();
+		assertThat(outline.getModules()).extracting("title").containsExactly("First", "Second");
+		assertThat(outline.getModules().get(0).getLessons()).extracting("title", "type")
+			.containsExactly(tuple("Intro", LessonType.TEXT));
+		assertThat(outline.getModules().get(1).getLessons()).isEmpty();
+
+		Course loaded = courseService.getCourseById(course.getId()).orElseThrow();
+		assertThat(Hibernate.isInitialized(loaded.getModules())).isTrue();
+		assertThat(loaded.getModules()).allMatch(module -> Hibernate.isInitialized(module.getLessons()));
+	}
+
+	@Test
+	void cachedCourseIsEvictedWhenStructureChanges() {
+		Course course = createCourse("Cached course");
+		Course cached = courseService.getCourseById(course.getId()).orElseThrow();
+		assertThat(courseService.getCourseById(course.getId()).orElseThrow()).isSameAs(cached);
+		assertThat(courseService.getCourseOutline(course.getId()).orElseThrow().getModules()).isEmpty();
+
+		Module module = new Module();
+		module.setTitle("Fresh module");
+		courseService.addModuleToCourse(course.getId(), module);
+
+		Course reloaded = courseService.getCourseById(course.getId()).orElseThrow();
+		assertThat(reloaded).isNotSameAs(cached);
+		assertThat(reloaded.getModules()).extracting("title").containsExactly("Fresh module");
+		assertThat(courseService.getCourseOutline(course.getId()).orElseThrow().getModules()).hasSize(1);
+	}
+
+	@Test
+	void concurrentAdditionsBumpTheParentVersionsWithoutConflicts() throws Exception {
+		Course course = createCourse("Concurrent course");
+		Module module = new Module();
+		module.setTitle("Concurrent module");
+		module = courseService.addModuleToCourse(course.getId(), module);
+		Long moduleId = module.getId();
+		long courseVersion = courseService.getCourseById(course.getId()).orElseThrow().getVersion();
+		long moduleVersion = moduleService.getModuleById(moduleId).orElseThrow().getVersion();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Lesson>> creates = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				Lesson lesson = new Lesson();
+				lesson.setTitle("Parallel " + i);
+				lesson.setType(LessonType.TEXT);
+				lesson.setContent("Body " + i);
+				creates.add(executor.submit(() -> lessonService.createLesson(moduleId, lesson)));
+			}
+			for (Future<Lesson> create : creates) {
+				create.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(moduleService.getModuleById(moduleId).orElseThrow().getVersion()).isEqualTo(moduleVersion + 8);
+		assertThat(courseService.getCourseById(course.getId()).orElseThrow().getVersion()).isEqualTo(courseVersion + 8);
+	}
+
+	private Course createCourse(String title) {
+		Course course = new Course();
+		course.setTitle(title);
+		return courseService.createCourse(course);
+	}
+}
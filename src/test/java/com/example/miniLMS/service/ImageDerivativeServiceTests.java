@@ -0,0 +1,103 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.StoredFile;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.storage.StorageBackend;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ImageDerivativeServiceTests {
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@Autowired
+	private ImageDerivativeService imageDerivativeService;
+
+	@Autowired
+	private StorageBackend storageBackend;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Test
+	void generatesDownscaledVariantsInTheBackground() throws Exception {
+		StoredFile image = fileStorageService.storeFile(png(1000, 500, Color.ORANGE));
+
+		Optional<String> variant = awaitVariant(image.getFileName(), 300);
+
+		assertThat(variant).contains(image.getFileName() + "_w400");
+		try (InputStream in = storageBackend.get(variant.get())) {
+			BufferedImage resized = ImageIO.read(in);
+			assertThat(resized.getWidth()).isEqualTo(400);
+			assertThat(resized.getHeight()).isEqualTo(200);
+		}
+		// Wait for the last variant, so the lookup below does not race the generation
+		assertThat(awaitVariant(image.getFileName(), 800)).contains(image.getFileName() + "_w800");
+		// Requests wider than every variant get the widest one, which is still narrower than the original
+		assertThat(imageDerivativeService.findVariant(image.getFileName(), 2000)).contains(image.getFileName() + "_w800");
+	}
+
+	@Test
+	void narrowImagesAreNeverUpscaled() throws Exception {
+		StoredFile image = fileStorageService.storeFile(png(300, 150, Color.GREEN));
+
+		assertThat(awaitVariant(image.getFileName(), 200)).contains(image.getFileName() + "_w200");
+		// Generation stops below the original width, so the original is served instead
+		assertThat(imageDerivativeService.findVariant(image.getFileName(), 400)).isEmpty();
+		assertThat(imageDerivativeService.findVariant(image.getFileName(), 2000)).isEmpty();
+	}
+
+	@Test
+	void courseImagePointsAtVariants() throws Exception {
+		Course course = new Course();
+		course.setTitle("Illustrated course");
+		course = courseService.createCourse(course);
+		StoredFile image = fileStorageService.storeFile(png(300, 300, Color.BLUE));
+
+		Course updated = courseService.setCourseImage(course.getId(), image);
+
+		assertThat(updated.getThumbnailUrl()).isEqualTo("/media/" + image.getFileName() + "?width=400");
+		StoredFile text = fileStorageService.storeFile(
+			new MockMultipartFile("file", "notes.txt", "text/plain", "not an image".getBytes()));
+		Long courseId = course.getId();
+		assertThatThrownBy(() -> courseService.setCourseImage(courseId, text))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private Optional<String> awaitVariant(String key, int width) throws InterruptedException {
+		for (int attempt = 0; attempt < 100; attempt++) {
+			Optional<String> variant = imageDerivativeService.findVariant(key, width);
+			if (variant.isPresent()) {
+				return variant;
+			}
+			Thread.sleep(100);
+		}
+		return Optional.empty();
+	}
+
+	private static MockMultipartFile png(int width, int height, Color color) throws Exception {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, width, height);
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return new MockMultipartFile("file", "picture.png", "image/png", out.toByteArray());
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.BatchProgressResult;
+import com.example.miniLMS.dto.ProgressEntry;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProgressBatchServiceTests {
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Autowired
+	private ModuleService moduleService;
+
+	@Autowired
+	private ProgressBatchService progressBatchService;
+
+	@Test
+	void batchIsIdempotentAndUpdatesCounters() {
+		Course course = new Course();
+		course.setTitle("Batch course");
+		course = courseService.createCourse(course);
+		Module module = new Module();
+		module.setTitle("Batch module");
+		module = courseService.addModuleToCourse(course.getId(), module);
+		Lesson a = addLesson(module, "a");
+		Lesson b = addLesson(module, "b");
+
+		lessonService.markLessonComplete(a.getId(), "dave");
+
+		List<ProgressEntry> entries = List.of(
+			new ProgressEntry("dave", a.getId()),
+			new ProgressEntry("dave", b.getId()),
+			new ProgressEntry("dave", b.getId()),
+			new ProgressEntry("erin", a.getId()),
+			new ProgressEntry("erin", -1L));
+
+		BatchProgressResult result = progressBatchService.recordCompletions(entries);
+		assertThat(result.getReceived()).isEqualTo(5);
+		assertThat(result.getCompleted()).isEqualTo(2);
+		assertThat(result.getAlreadyCompleted()).isEqualTo(1);
+		assertThat(result.getUnknownLessons()).containsExactly(-1L);
+
+		BatchProgressResult retry = progressBatchService.recordCompletions(entries);
+		assertThat(retry.getCompleted()).isZero();
+		assertThat(retry.getAlreadyCompleted()).isEqualTo(3);
+
+		assertThat(moduleService.calculateModuleProgress(module.getId(), "dave")).isEqualTo(1.0);
+		assertThat(moduleService.calculateModuleProgress(module.getId(), "erin")).isEqualTo(0.5);
+		assertThat(courseService.calculateCourseProgress(course.getId(), "erin")).isEqualTo(0.5);
+	}
+
+	private Lesson addLesson(Module module, String title) {
+		Lesson lesson = new Lesson();
+		lesson.setTitle(title);
+		lesson.setType(LessonType.TEXT);
+		lesson.setContent("Body of " + title);
+		return lessonService.createLesson(module.getId(), lesson);
+	}
+}
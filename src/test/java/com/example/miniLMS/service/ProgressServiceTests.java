@@ -0,0 +1,156 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.CourseProgress;
+import com.example.miniLMS.dto.CourseProgressSummary;
+import com.example.miniLMS.dto.UserProgress;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProgressServiceTests {
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Autowired
+	private ProgressService progressService;
+
+	@Autowired
+	private ProgressCounterService progressCounterService;
+
+	@Autowired
+	private ModuleService moduleService;
+
+	@Test
+	void courseProgressIncludesModuleBreakdown() {
+		Course course = new Course();
+		course.setTitle("Progress course");
+		course = courseService.createCourse(course);
+
+		Module first = addModule(course, "First");
+		Module second = addModule(course, "Second");
+		addModule(course, "Empty");
+
+		Lesson a = addLesson(first, "a");
+		addLesson(first, "b");
+		Lesson c = addLesson(second, "c");
+
+		lessonService.markLessonComplete(a.getId(), "alice");
+		lessonService.markLessonComplete(c.getId(), "alice");
+		lessonService.markLessonComplete(c.getId(), "bob");
+
+		CourseProgress progress = progressService.getCourseProgress(course.getId(), "alice");
+
+		assertThat(progress.getModules()).hasSize(3);
+		assertThat(progress.getModules().get(0).getTotalLessons()).isEqualTo(2);
+		assertThat(progress.getModules().get(0).getCompletedLessons()).isEqualTo(1);
+		assertThat(progress.getModules().get(1).getProgress()).isEqualTo(1.0);
+		assertThat(progress.getModules().get(2).getProgress()).isEqualTo(0.0);
+		assertThat(progress.getProgress()).isEqualTo((0.5 + 1.0 + 0.0) / 3);
+		assertThat(courseService.calculateCourseProgress(course.getId(), "alice"))
+			.isEqualTo(progress.getProgress());
+	}
+
+	@Test
+	void countersFollowNewLessonsAndRebuild() {
+		Course course = new Course();
+		course.setTitle("Counter course");
+		course = courseService.createCourse(course);
+		Module module = addModule(course, "Only");
+		Lesson a = addLesson(module, "a");
+
+		lessonService.markLessonComplete(a.getId(), "carol");
+		lessonService.markLessonComplete(a.getId(), "carol");
+		assertThat(moduleService.calculateModuleProgress(module.getId(), "carol")).isEqualTo(1.0);
+		assertThat(courseService.calculateCourseProgress(course.getId(), "carol")).isEqualTo(1.0);
+
+		addLesson(module, "b");
+		assertThat(moduleService.calculateModuleProgress(module.getId(), "carol")).isEqualTo(0.5);
+		assertThat(courseService.calculateCourseProgress(course.getId(), "carol")).isEqualTo(0.5);
+
+		addModule(course, "Second");
+		assertThat(courseService.calculateCourseProgress(course.getId(), "carol")).isEqualTo(0.25);
+
+		progressCounterService.rebuildAll();
+		assertThat(moduleService.calculateModuleProgress(module.getId(), "carol")).isEqualTo(0.5);
+		assertThat(courseService.calculateCourseProgress(course.getId(), "carol")).isEqualTo(0.25);
+	}
+
+	@Test
+	void emptyAndMissingCourses() {
+		Course course = new Course();
+		course.setTitle("Empty course");
+		course = courseService.createCourse(course);
+
+		assertThat(progressService.getCourseProgress(course.getId(), "alice").getProgress()).isEqualTo(0.0);
+		assertThatThrownBy(() -> progressService.getCourseProgress(-1L, "alice"))
+			.hasMessage("Course not found");
+	}
+
+	@Test
+	void userProgressCoversEveryStartedCourse() {
+		Course started = new Course();
+		started.setTitle("Started course");
+		started = courseService.createCourse(started);
+		Module first = addModule(started, "First");
+		addModule(started, "Untouched");
+		Lesson a = addLesson(first, "a");
+		addLesson(first, "b");
+
+		Course finished = new Course();
+		finished.setTitle("Finished course");
+		finished = courseService.createCourse(finished);
+		Lesson c = addLesson(addModule(finished, "Only"), "c");
+
+		Course other = new Course();
+		other.setTitle("Not started");
+		other = courseService.createCourse(other);
+		addLesson(addModule(other, "Only"), "d");
+
+		lessonService.markLessonComplete(a.getId(), "dana");
+		lessonService.markLessonComplete(c.getId(), "dana");
+
+		UserProgress progress = progressService.getUserProgress("dana", true);
+
+		assertThat(progress.getCourses()).extracting(CourseProgressSummary::getCourseId)
+			.containsExactly(started.getId(), finished.getId());
+		CourseProgressSummary startedProgress = progress.getCourses().get(0);
+		assertThat(startedProgress.getTitle()).isEqualTo("Started course");
+		assertThat(startedProgress.getProgress())
+			.isEqualTo(progressService.calculateCourseProgress(started.getId(), "dana"))
+			.isEqualTo(0.25);
+		assertThat(startedProgress.getModules()).hasSize(2);
+		assertThat(startedProgress.getModules().get(0).getCompletedLessons()).isEqualTo(1);
+		assertThat(startedProgress.getModules().get(1).getProgress()).isEqualTo(0.0);
+		assertThat(progress.getCourses().get(1).getProgress()).isEqualTo(1.0);
+
+		assertThat(progressService.getUserProgress("dana", false).getCourses())
+			.allSatisfy(course -> assertThat(course.getModules()).isNull());
+		assertThat(progressService.getUserProgress("nobody", true).getCourses()).isEmpty();
+	}
+
+	private Module addModule(Course course, String title) {
+		Module module = new Module();
+		module.setTitle(title);
+		return courseService.addModuleToCourse(course.getId(), module);
+	}
+
+	private Lesson addLesson(Module module, String title) {
+		Lesson lesson = new Lesson();
+		lesson.setTitle(title);
+		lesson.setType(LessonType.TEXT);
+		lesson.setContent("Body of " + title);
+		return lessonService.createLesson(module.getId(), lesson);
+	}
+}
@@ -0,0 +1,146 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest(properties = {
+	"progress.write-behind.enabled=true",
+	"progress.write-behind.capacity=3",
+	"progress.write-behind.flush-interval-ms=600000"
+})
+class ProgressWriteBufferTests {
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Autowired
+	private ModuleService moduleService;
+
+	@Autowired
+	private ProgressWriteBuffer progressWriteBuffer;
+
+	@MockitoSpyBean
+	private ProgressBatchService progressBatchService;
+
+	@Test
+	void bufferedCompletionsAreCoalescedAndVisibleToTheSameUser() {
+		Course course = new Course();
+		course.setTitle("Buffered course");
+		course = courseService.createCourse(course);
+		Module module = new Module();
+		module.setTitle("Buffered module");
+		module = courseService.addModuleToCourse(course.getId(), module);
+		Lesson lesson = new Lesson();
+		lesson.setTitle("Buffered lesson");
+		lesson.setType(LessonType.TEXT);
+		lesson.setContent("Body");
+		lesson = lessonService.createLesson(module.getId(), lesson);
+
+		long flushedBefore = progressWriteBuffer.getStats().getFlushedEntries();
+		lessonService.submitLessonComplete(lesson.getId(), "frank");
+		lessonService.submitLessonComplete(lesson.getId(), "frank");
+		lessonService.submitLessonComplete(lesson.getId(), "grace");
+		assertThat(progressWriteBuffer.getStats().getDepth()).isEqualTo(2);
+
+		assertThat(moduleService.calculateModuleProgress(module.getId(), "frank")).isEqualTo(1.0);
+		assertThat(progressWriteBuffer.getStats().getDepth()).isEqualTo(1);
+
+		progressWriteBuffer.flushAll();
+		assertThat(progressWriteBuffer.getStats().getDepth()).isZero();
+		assertThat(progressWriteBuffer.getStats().getFlushedEntries() - flushedBefore).isEqualTo(2);
+		assertThat(courseService.calculateCourseProgress(course.getId(), "grace")).isEqualTo(1.0);
+	}
+
+	@Test
+	void progressReadWaitsForAConcurrentFlushOfTheSameUser() throws Exception {
+		Lesson lesson = createLesson("Concurrent flush");
+		Long moduleId = lesson.getModule().getId();
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			writing.countDown();
+			release.await();
+			return invocation.callRealMethod();
+		}).when(progressBatchService).recordCompletions(anyList());
+
+		lessonService.submitLessonComplete(lesson.getId(), "heidi");
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			executor.submit(progressWriteBuffer::flushAll);
+			// The flush has taken the completion out of the buffer but not committed it yet
+			assertThat(writing.await(5, SECONDS)).isTrue();
+			Future<Double> read = executor.submit(() -> moduleService.calculateModuleProgress(moduleId, "heidi"));
+			Thread.sleep(200);
+			assertThat(read).isNotDone();
+
+			release.countDown();
+			assertThat(read.get(5, SECONDS)).isEqualTo(1.0);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+			executor.awaitTermination(5, SECONDS);
+		}
+	}
+
+	@Test
+	void failedFlushesKeepCompletionsAndTheBufferBounded() {
+		Lesson lesson = createLesson("Failing flush");
+		Long moduleId = lesson.getModule().getId();
+		doThrow(new RuntimeException("Database unavailable"))
+			.when(progressBatchService).recordCompletions(anyList());
+
+		lessonService.submitLessonComplete(lesson.getId(), "ivan");
+		lessonService.submitLessonComplete(lesson.getId(), "judy");
+		lessonService.submitLessonComplete(lesson.getId(), "mallory");
+		assertThatThrownBy(() -> lessonService.submitLessonComplete(lesson.getId(), "niaj"))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("Progress write-behind buffer is full");
+		assertThatThrownBy(() -> moduleService.calculateModuleProgress(moduleId, "ivan"))
+			.isInstanceOf(IllegalStateException.class);
+		assertThat(progressWriteBuffer.getStats().getDepth()).isEqualTo(3);
+
+		reset(progressBatchService);
+		assertThat(moduleService.calculateModuleProgress(moduleId, "ivan")).isEqualTo(1.0);
+		progressWriteBuffer.flushAll();
+		assertThat(progressWriteBuffer.getStats().getDepth()).isZero();
+		assertThat(moduleService.calculateModuleProgress(moduleId, "mallory")).isEqualTo(1.0);
+	}
+
+	private Lesson createLesson(String title) {
+		Course course = new Course();
+		course.setTitle(title + " course");
+		course = courseService.createCourse(course);
+		Module module = new Module();
+		module.setTitle(title + " module");
+		module = courseService.addModuleToCourse(course.getId(), module);
+		Lesson lesson = new Lesson();
+		lesson.setTitle(title + " lesson");
+		lesson.setType(LessonType.TEXT);
+		lesson.setContent("Body");
+		lesson = lessonService.createLesson(module.getId(), lesson);
+		lesson.setModule(module);
+		return lesson;
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.miniLMS.service;
+
+import com.example.miniLMS.dto.SearchHit;
+import com.example.miniLMS.entity.Course;
+import com.example.miniLMS.entity.Lesson;
+import com.example.miniLMS.entity.LessonType;
+import com.example.miniLMS.entity.Module;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SearchIndexServiceTests {
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Autowired
+	private SearchIndexService searchIndexService;
+
+	@Test
+	void newDocumentsAreSearchableByPrefix() {
+		Course course = new Course();
+		course.setTitle("Quixotic astronomy");
+		course.setDescription("Telescopes and zygomorphic nebulae");
+		course = courseService.createCourse(course);
+
+		Module module = new Module();
+		module.setTitle("Quixotic optics");
+		module.setSummary("Mirrors");
+		module = courseService.addModuleToCourse(course.getId(), module);
+
+		Lesson lesson = new Lesson();
+		lesson.setTitle("Grinding lenses");
+		lesson.setType(LessonType.TEXT);
+		lesson.setContent("<p>Polishing a quixotic speculum takes patience &amp; pitch</p>");
+		lesson = lessonService.createLesson(module.getId(), lesson);
+
+		List<SearchHit> hits = searchIndexService.search("quixo", 10);
+		assertThat(hits).extracting(SearchHit::getType).containsExactly("COURSE", "MODULE", "LESSON");
+		assertThat(hits.get(2).getId()).isEqualTo(lesson.getId());
+		assertThat(hits.get(2).getCourseId()).isEqualTo(course.getId());
+		assertThat(hits.get(2).getModuleId()).isEqualTo(module.getId());
+
+		assertThat(searchIndexService.search("quixotic specul", 10))
+			.extracting(SearchHit::getId).containsExactly(lesson.getId());
+		assertThat(searchIndexService.search("zygomorph", 10))
+			.extracting(SearchHit::getId).containsExactly(course.getId());
+		assertThat(searchIndexService.search("amp", 10)).isEmpty();
+		assertThat(searchIndexService.search("quixotic mirrorless", 10)).isEmpty();
+	}
+
+	@Test
+	void rebuildReadsStoredTextWithoutDuplicates() {
+		Course course = new Course();
+		course.setTitle("Xylophone basics");
+		course = courseService.createCourse(course);
+		Module module = new Module();
+		module.setTitle("Mallets");
+		module = courseService.addModuleToCourse(course.getId(), module);
+		Lesson lesson = new Lesson();
+		lesson.setTitle("Warmup");
+		lesson.setType(LessonType.TEXT);
+		lesson.setContent("Glissando exercises");
+		lessonService.createLesson(module.getId(), lesson);
+
+		searchIndexService.rebuild();
+
+		assertThat(searchIndexService.search("glissando", 10)).hasSize(1);
+		assertThat(searchIndexService.getStats().isReady()).isTrue();
+		assertThat(searchIndexService.getStats().getDocuments()).isGreaterThanOrEqualTo(3);
+		assertThat(searchIndexService.getStats().getEstimatedBytes()).isPositive();
+	}
+
+	@Test
+	void prefixesMatchTheirMostFrequentCompletions() {
+		SearchIndexService index = standalone(Long.MAX_VALUE);
+		// More rare completions than are expanded, all sorting before the frequent one
+		for (int i = 0; i < 100; i++) {
+			index.indexCourse((long) i, String.format("paa%02d", i), null);
+		}
+		for (int i = 100; i < 105; i++) {
+			index.indexCourse((long) i, "pazzle", null);
+		}
+
+		assertThat(index.search("pa", 200)).extracting(SearchHit::getId)
+			.contains(100L, 101L, 102L, 103L, 104L);
+	}
+
+	@Test
+	void documentsBeyondThePostingsBoundAreSkipped() {
+		SearchIndexService index = standalone(4);
+		index.indexCourse(1L, "Alpha beta", "Gamma");
+		index.indexCourse(2L, "Delta epsilon", "Zeta");
+
+		assertThat(index.search("alpha", 10)).hasSize(1);
+		assertThat(index.search("delta", 10)).isEmpty();
+		assertThat(index.getStats().getPostings()).isEqualTo(3);
+		assertThat(index.getStats().getSkippedDocuments()).isEqualTo(1);
+	}
+
+	private static SearchIndexService standalone(long maxPostings) {
+		return new SearchIndexService(null, null, null, null, true, 256, 100_000, maxPostings, false);
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.miniLMS.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalStorageBackendTests {
+
+	private static final String DIGEST = "ab" + "cd" + "0".repeat(60);
+
+	@TempDir
+	Path root;
+
+	@Test
+	void shardsDigestKeysAndReadsRanges() throws Exception {
+		LocalStorageBackend backend = new LocalStorageBackend(root.toString());
+		Path source = Files.writeString(root.resolve("upload"), "0123456789");
+
+		backend.put(DIGEST, source);
+
+		assertThat(source).doesNotExist();
+		assertThat(root.resolve("ab").resolve("cd").resolve(DIGEST)).hasContent("0123456789");
+		assertThat(backend.stat(DIGEST)).get().extracting(BlobStat::getSize).isEqualTo(10L);
+		try (InputStream in = backend.getRange(DIGEST, 2, 5)) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.US_ASCII)).isEqualTo("2345");
+		}
+
+		backend.delete(DIGEST);
+		assertThat(backend.stat(DIGEST)).isEmpty();
+	}
+
+	@Test
+	void movesFlatBlobsIntoShardsAndKeepsLegacyFiles() throws Exception {
+		Files.writeString(root.resolve(DIGEST), "blob");
+		Files.writeString(root.resolve("1700000000000_slides.pdf"), "legacy");
+
+		LocalStorageBackend backend = new LocalStorageBackend(root.toString());
+
+		assertThat(root.resolve(DIGEST)).doesNotExist();
+		assertThat(backend.stat(DIGEST)).isPresent();
+		assertThat(backend.localPath("1700000000000_slides.pdf")).contains(root.resolve("1700000000000_slides.pdf"));
+		assertThatThrownBy(() -> backend.get("../secret")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
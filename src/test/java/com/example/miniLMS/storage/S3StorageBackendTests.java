@@ -0,0 +1,187 @@
+package com.example.miniLMS.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3StorageBackendTests {
+
+	private static final String DIGEST = "ab" + "cd" + "0".repeat(60);
+	private static final int PART_SIZE = 5 * 1024 * 1024;
+
+	@TempDir
+	Path root;
+
+	private final InMemoryS3 s3 = new InMemoryS3();
+	private final S3StorageBackend backend = new S3StorageBackend(s3, "lms-media", "media/", PART_SIZE);
+
+	@Test
+	void storesUnderThePrefixAndReadsRanges() throws Exception {
+		Path source = Files.writeString(root.resolve("upload"), "0123456789");
+
+		backend.put(DIGEST, source);
+
+		assertThat(source).doesNotExist();
+		assertThat(s3.objects).containsOnlyKeys("media/" + DIGEST);
+		assertThat(backend.stat(DIGEST)).get().extracting(BlobStat::getSize).isEqualTo(10L);
+		try (InputStream in = backend.getRange(DIGEST, 2, 5)) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.US_ASCII)).isEqualTo("2345");
+		}
+
+		backend.delete(DIGEST);
+		assertThat(backend.stat(DIGEST)).isEmpty();
+		assertThatThrownBy(() -> backend.get("../secret")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void uploadsLargeFilesInParts() throws Exception {
+		byte[] content = new byte[2 * PART_SIZE + 1000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) (i * 31);
+		}
+		Path source = Files.write(root.resolve("large"), content);
+
+		backend.put(DIGEST, source);
+
+		assertThat(s3.completedParts).isEqualTo(3);
+		assertThat(s3.uploads).isEmpty();
+		try (InputStream in = backend.get(DIGEST)) {
+			assertThat(in.readAllBytes()).isEqualTo(content);
+		}
+	}
+
+	/**
+	 * Keeps objects in memory and implements the calls the backend makes, with the error
+	 * behaviour of S3 for missing keys.
+	 */
+	private static final class InMemoryS3 implements S3Client {
+		private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+		private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+		private int completedParts;
+
+		@Override
+		public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+			objects.put(request.key(), read(body));
+			return PutObjectResponse.builder().build();
+		}
+
+		@Override
+		public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+			byte[] object = find(request.key());
+			if (request.range() != null) {
+				String[] bounds = request.range().substring("bytes=".length()).split("-");
+				object = Arrays.copyOfRange(object, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1);
+			}
+			return new ResponseInputStream<>(GetObjectResponse.builder().contentLength((long) object.length).build(),
+				AbortableInputStream.create(new ByteArrayInputStream(object)));
+		}
+
+		@Override
+		public HeadObjectResponse headObject(HeadObjectRequest request) {
+			byte[] object = find(request.key());
+			return HeadObjectResponse.builder().contentLength((long) object.length).lastModified(Instant.now()).build();
+		}
+
+		@Override
+		public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+			objects.remove(request.key());
+			return DeleteObjectResponse.builder().build();
+		}
+
+		@Override
+		public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+			String uploadId = UUID.randomUUID().toString();
+			uploads.put(uploadId, new TreeMap<>());
+			return CreateMultipartUploadResponse.builder().uploadId(uploadId).build();
+		}
+
+		@Override
+		public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+			uploads.get(request.uploadId()).put(request.partNumber(), read(body));
+			return UploadPartResponse.builder().eTag("part-" + request.partNumber()).build();
+		}
+
+		@Override
+		public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+			Map<Integer, byte[]> parts = uploads.remove(request.uploadId());
+			ByteArrayOutputStream object = new ByteArrayOutputStream();
+			for (CompletedPart part : request.multipartUpload().parts()) {
+				assertThat(part.eTag()).isEqualTo("part-" + part.partNumber());
+				object.writeBytes(parts.get(part.partNumber()));
+				completedParts++;
+			}
+			objects.put(request.key(), object.toByteArray());
+			return CompleteMultipartUploadResponse.builder().build();
+		}
+
+		@Override
+		public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+			uploads.remove(request.uploadId());
+			return AbortMultipartUploadResponse.builder().build();
+		}
+
+		@Override
+		public String serviceName() {
+			return SERVICE_NAME;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		private byte[] find(String key) {
+			byte[] object = objects.get(key);
+			if (object == null) {
+				throw NoSuchKeyException.builder().statusCode(404).message("The specified key does not exist.").build();
+			}
+			return object;
+		}
+
+		private static byte[] read(RequestBody body) {
+			try (InputStream in = body.contentStreamProvider().newStream()) {
+				return in.readAllBytes();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}